@@ -2,7 +2,11 @@ package Model;
 
 import Objects.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.StampedLock;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * FeatureEngineer - computes rolling averages, H2H and surface stats and produces MatchFeatures.
@@ -10,26 +14,86 @@ import java.util.stream.Collectors;
  * Usage:
  *  - instantiate with a list of ModelData (chronologically ordered)
  *  - call buildAll to get List<MatchFeatures>
+ *  - call buildAll(Orientation, seed) to get rows that are not all player1 = winner
+ *  - call buildAllParallel(Orientation, seed) for the same rows using all cores
+ *  - call ingest(match) to add single matches, snapshotFeatures(...) to read features for an upcoming match
  *
  * Notes:
  *  - Assumes input ModelData list is sorted by date ascending (old -> new).
  *  - Rolling window size can be changed by ROLLING_WINDOW.
+ *  - Pass an OffHeapPlayerState to keep player state in native memory instead of the heap maps below; it
+ *    produces the same features. That class needs java --enable-preview (see OffHeapPlayerState); the heap
+ *    backend does not.
+ *  - Time-decayed rates come from DecayedPlayerStats (pass one to change the half-lives); they are kept on
+ *    the heap with either backend since they are a fixed handful of doubles per player.
+ *
+ * Concurrency:
+ *  - Single writer, many readers. ingest/buildAll must be called from one thread at a time; each match is
+ *    applied as one unit under the write side of stateLock and bumps stateVersion. buildAllParallel is one
+ *    writer too: it fans out internally while holding the write lock.
+ *  - snapshotFeatures is seqlock-style: it computes optimistically without taking a lock and retries if a
+ *    match was applied meanwhile, so readers do not block the writer and never return a mix of pre- and
+ *    post-match state. After OPTIMISTIC_TRIES failed attempts (e.g. while buildAllParallel holds the write lock)
+ *    it waits on the read lock instead of spinning.
+ *  - Optimistic reads run while the writer may be mid-update, which is safe because every map they read is a
+ *    ConcurrentHashMap (a get never loops or fails on a concurrent put or resize), histories are walked by
+ *    LinkedList iterators bounded by an index (a concurrent add / removeFirst ends in stale values or an
+ *    exception, never an endless walk), and nothing read counts unless the stamp still validates afterwards.
+ *    An exception thrown while the stamp stays valid is a real error and is rethrown.
+ *  - With setPairCache, snapshotFeatures reuses rows for repeated queries until either player plays again
+ *    (tracked by per-player versions in playerVersion).
  */
 public class FeatureEngineer {
 
     private final List<ModelData> allMatches; // raw matches in chronological order
     private final int ROLLING_WINDOW = 5; // last N matches
+    static final int HISTORY_CAP = 200; // matches kept per player (OffHeapPlayerState keeps the same number)
+    private static final int PARALLEL_WAVE_MIN = 8; // smaller waves run on the calling thread
+    private static final int OPTIMISTIC_TRIES = 8; // snapshot attempts before falling back to the read lock
 
+    // Maps below are ConcurrentHashMaps because snapshotFeatures reads them optimistically (see Concurrency).
     // per-player history (ordered list of ModelData indices or references)
-    private final Map<String, LinkedList<ModelData>> historyByPlayer = new HashMap<>();
+    private final Map<String, LinkedList<ModelData>> historyByPlayer = new ConcurrentHashMap<>();
 
     // per-player per-surface stats (wins / total) maintained incrementally
-    private final Map<String, Map<String, int[]>> surfaceCountsByPlayer = new HashMap<>();
-    // h2h counters: map[playerA][playerB] = winsPlayerAAgainstB
-    private final Map<String, Map<String, Integer>> h2hWins = new HashMap<>();
+    private final Map<String, Map<String, int[]>> surfaceCountsByPlayer = new ConcurrentHashMap<>();
+    // h2h counters: map[playerA][playerB][0] = winsPlayerAAgainstB (int[1] so increments don't box)
+    private final Map<String, Map<String, int[]>> h2hWins = new ConcurrentHashMap<>();
+
+    // optional off-heap backend; when set, the maps above stay empty
+    private final OffHeapPlayerState offHeap;
+
+    // exponentially time-decayed rates, updated lazily per player
+    private final DecayedPlayerStats decayed;
+
+    // guards all state above: writeLock per applied match, optimistic reads for snapshots
+    private final StampedLock stateLock = new StampedLock();
+    private volatile long stateVersion; // number of matches applied so far
+    // stateVersion at the last match each player was involved in, as long[1] (absent = never played)
+    private final Map<String, long[]> playerVersion = new ConcurrentHashMap<>();
+
+    private volatile PairFeatureCache pairCache; // optional, see setPairCache
+
+    /**
+     * How rows are oriented in the output of buildAll.
+     *  - WINNER_FIRST: player1 = winner, label always 1 (original behaviour)
+     *  - RANDOM: each row is the winner-first row or its mirror, chosen by a seeded coin flip
+     *  - BOTH: every match emits the winner-first row followed by its mirror
+     */
+    public enum Orientation { WINNER_FIRST, RANDOM, BOTH }
 
     public FeatureEngineer(List<ModelData> matchesChronological) {
+        this(matchesChronological, null);
+    }
+
+    public FeatureEngineer(List<ModelData> matchesChronological, OffHeapPlayerState offHeap) {
+        this(matchesChronological, offHeap, new DecayedPlayerStats());
+    }
+
+    public FeatureEngineer(List<ModelData> matchesChronological, OffHeapPlayerState offHeap, DecayedPlayerStats decayed) {
         this.allMatches = matchesChronological;
+        this.offHeap = offHeap;
+        this.decayed = decayed;
     }
 
     /**
@@ -37,91 +101,322 @@ public class FeatureEngineer {
      * Returns list of MatchFeatures in the same order.
      */
     public List<MatchFeatures> buildAll() {
-        List<MatchFeatures> result = new ArrayList<>();
+        return buildAll(Orientation.WINNER_FIRST, 0L);
+    }
+
+    /**
+     * Build features for every match in allMatches with the given row orientation.
+     * Mirrored rows are views over the winner-first row (see MatchFeatures.mirrored), so features are
+     * computed once per match whatever the orientation. Output is deterministic for a given seed.
+     */
+    public List<MatchFeatures> buildAll(Orientation orientation, long seed) {
+        List<MatchFeatures> result = new ArrayList<>(orientation == Orientation.BOTH ? allMatches.size() * 2 : allMatches.size());
+        SplittableRandom rng = new SplittableRandom(seed);
 
         for (ModelData m : allMatches) {
-            // Determine names - use winner_name/loser_name and map to player1/player2 consistently.
-            String winnerName = m.getWinner_name();
-            String loserName = m.getLoser_name();
-
-            // For MatchFeatures we want player1 and player2 (we'll choose player1 = winnerName for labeling ease
-            // but to keep consistent mapping for train/test we instead set player1=winnerName if that matches your previous pipeline.
-            // Here we'll stick to CSV order: player1 = winner_name, player2 = loser_name and winner label = 1.
-            String player1 = winnerName;
-            String player2 = loserName;
-            String surface = m.getSurface();
-
-            // Get current ranks / elos (if null, set default)
-            double player1Rank = (m.getWinner_rank() != null) ? m.getWinner_rank() : 9999;
-            double player2Rank = (m.getLoser_rank() != null) ? m.getLoser_rank() : 9999;
-            double player1Elo = player1Rank > 0 && player1Rank < 9999 ? 2000.0 - player1Rank : 1500.0; // lightweight proxy if no Elo
-            double player2Elo = player2Rank > 0 && player2Rank < 9999 ? 2000.0 - player2Rank : 1500.0;
-
-            // Calculate H2H counts & rates BEFORE current match (important: use historyByPlayer)
-            int h2hP1Wins = getH2hWins(player1, player2);
-            int h2hP2Wins = getH2hWins(player2, player1);
-            double h2hRateP1 = computeRate(h2hP1Wins, h2hP1Wins + h2hP2Wins);
-            double h2hRateP2 = computeRate(h2hP2Wins, h2hP1Wins + h2hP2Wins);
-
-            // Form stats: last N matches for both players
-            int[] formP1 = getRecentWinCounts(player1, ROLLING_WINDOW);
-            int[] formP2 = getRecentWinCounts(player2, ROLLING_WINDOW);
-            int formWinsP1 = formP1[0], formTotalP1 = formP1[1];
-            int formWinsP2 = formP2[0], formTotalP2 = formP2[1];
-            double formRateP1 = computeRate(formWinsP1, formTotalP1);
-            double formRateP2 = computeRate(formWinsP2, formTotalP2);
-
-            // Rolling averages from last N (win pct, aces avg, df avg, bp conversion)
-            double winPctP1 = getRollingWinPct(player1, ROLLING_WINDOW);
-            double winPctP2 = getRollingWinPct(player2, ROLLING_WINDOW);
-
-            double aceAvgP1 = getRollingDoubleStatAvg(player1, "aces", ROLLING_WINDOW);
-            double aceAvgP2 = getRollingDoubleStatAvg(player2, "aces", ROLLING_WINDOW);
-
-            double dfAvgP1 = getRollingDoubleStatAvg(player1, "double_faults", ROLLING_WINDOW);
-            double dfAvgP2 = getRollingDoubleStatAvg(player2, "double_faults", ROLLING_WINDOW);
-
-            double bpConvP1 = getRollingBPConversion(player1, ROLLING_WINDOW);
-            double bpConvP2 = getRollingBPConversion(player2, ROLLING_WINDOW);
-
-            // Surface-specific performance (win% and ace rate)
-            double surfaceWinPctP1 = getSurfaceWinPct(player1, surface);
-            double surfaceWinPctP2 = getSurfaceWinPct(player2, surface);
-
-            double surfaceAceRateP1 = getSurfaceAvgDoubleStat(player1, surface, "aces");
-            double surfaceAceRateP2 = getSurfaceAvgDoubleStat(player2, surface, "aces");
-
-            // Odds (if you have odds in ModelData, else 0)
-            double oddsP1 = 0.0;
-            double oddsP2 = 0.0;
-
-            // Build MatchFeatures object.
-            MatchFeatures mf = new MatchFeatures(
-                    player1, player2, surface, m.getRound(),
-                    player1Rank, player2Rank, player1Elo, player2Elo,
-                    h2hP1Wins, h2hP2Wins, h2hRateP1, h2hRateP2,
-                    formWinsP1, Math.max(0, formTotalP1 - formWinsP1), formRateP1,
-                    formWinsP2, Math.max(0, formTotalP2 - formWinsP2), formRateP2,
-                    oddsP1, oddsP2,
-                    winPctP1, aceAvgP1, dfAvgP1, bpConvP1,
-                    winPctP2, aceAvgP2, dfAvgP2, bpConvP2,
-                    h2hRateP1, h2hRateP2,
-                    surfaceWinPctP1, surfaceWinPctP2,
-                    surfaceAceRateP1, surfaceAceRateP2,
-                    1 // label: since player1 is winner_name we set 1 (if you need original label mapping change accordingly)
-            );
-
-            result.add(mf);
+            addOriented(result, ingest(m), orientation, rng);
+        }
 
-            // AFTER creating features for this match, update history maps with current match
-            pushToHistory(m);
-            updateH2HAfterMatch(m);
-            updateSurfaceAfterMatch(m);
+        return result;
+    }
+
+    /**
+     * Same output as buildAll(orientation, seed), with independent matches processed concurrently.
+     * Matches are grouped into MatchWaves; within a wave no player appears twice, so each match's features and
+     * state update touch only its own two players and the whole wave runs on the common fork-join pool.
+     * With the off-heap backend only feature computation is concurrent: its h2h table is shared between
+     * players, so updates are applied on the calling thread after each wave.
+     * Holds the write lock for the whole build; snapshot readers wait until it is done.
+     */
+    public List<MatchFeatures> buildAllParallel(Orientation orientation, long seed) {
+        MatchWaves waves = MatchWaves.plan(allMatches);
+        MatchFeatures[] rows = new MatchFeatures[allMatches.size()];
+        boolean parallel = ForkJoinPool.getCommonPoolParallelism() > 1; // one core: forking only adds overhead
+
+        long stamp = stateLock.writeLock();
+        try {
+            long base = stateVersion;
+            for (int w = 0; w < waves.waveCount(); w++) {
+                int from = waves.waveStart(w), to = waves.waveEnd(w);
+                // new players get their map entries here, so the concurrent part never resizes a shared map
+                if (offHeap == null) {
+                    for (int i = from; i < to; i++) {
+                        ModelData m = allMatches.get(waves.match(i));
+                        preparePlayer(m.getWinner_name(), m.getTourney_date());
+                        preparePlayer(m.getLoser_name(), m.getTourney_date());
+                    }
+                }
+
+                IntStream wave = IntStream.range(from, to);
+                if (parallel && to - from >= PARALLEL_WAVE_MIN) wave = wave.parallel();
+                wave.forEach(i -> {
+                    int idx = waves.match(i);
+                    ModelData m = allMatches.get(idx);
+                    rows[idx] = computeFeatures(m);
+                    if (offHeap == null) {
+                        applyMatch(m);
+                        recordVersion(m, base + idx + 1);
+                    }
+                });
+
+                if (offHeap != null) {
+                    for (int i = from; i < to; i++) {
+                        int idx = waves.match(i);
+                        ModelData m = allMatches.get(idx);
+                        applyMatch(m);
+                        recordVersion(m, base + idx + 1);
+                    }
+                }
+            }
+            stateVersion = base + allMatches.size();
+        } finally {
+            stateLock.unlockWrite(stamp);
         }
 
+        List<MatchFeatures> result = new ArrayList<>(orientation == Orientation.BOTH ? rows.length * 2 : rows.length);
+        SplittableRandom rng = new SplittableRandom(seed);
+        for (MatchFeatures mf : rows) addOriented(result, mf, orientation, rng);
         return result;
     }
 
+    /**
+     * Append a winner-first row to result in the given orientation. RANDOM draws one boolean from rng per row,
+     * so a caller orienting rows one at a time with the same rng gets what buildAll would have produced.
+     */
+    public static void addOriented(List<MatchFeatures> result, MatchFeatures mf, Orientation orientation,
+                                   SplittableRandom rng) {
+        switch (orientation) {
+            case RANDOM:
+                result.add(rng.nextBoolean() ? mf : mf.mirrored());
+                break;
+            case BOTH:
+                result.add(mf);
+                result.add(mf.mirrored());
+                break;
+            default:
+                result.add(mf);
+                break;
+        }
+    }
+
+    /**
+     * Compute the winner-first features for a finished match, then apply it to the player state.
+     * Writer side: call from a single thread.
+     */
+    public MatchFeatures ingest(ModelData m) {
+        long stamp = stateLock.writeLock();
+        try {
+            MatchFeatures mf = computeFeatures(m);
+            // AFTER creating features for this match, update history maps with current match
+            applyMatch(m);
+            long version = stateVersion + 1;
+            recordVersion(m, version);
+            stateVersion = version;
+            return mf;
+        } finally {
+            stateLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Features for an upcoming best-of-3 match between player1 and player2 from a consistent snapshot of the state.
+     * Safe to call from any number of threads while another thread ingests. The label is -1 (unknown).
+     */
+    public MatchFeatures snapshotFeatures(String player1, String player2, String surface, String round,
+                                          Integer player1Rank, Integer player2Rank) {
+        return snapshotFeatures(player1, player2, surface, round, player1Rank, player2Rank, 3);
+    }
+
+    /**
+     * As above, for a best-of-3 or best-of-5 match (only markovWinProbP1 depends on bestOf).
+     */
+    public MatchFeatures snapshotFeatures(String player1, String player2, String surface, String round,
+                                          Integer player1Rank, Integer player2Rank, int bestOf) {
+        PairFeatureCache cache = pairCache;
+        PairFeatureCache.Key key = cache == null ? null
+                : new PairFeatureCache.Key(player1, player2, surface, round, player1Rank, player2Rank, bestOf);
+        for (int attempt = 0; attempt < OPTIMISTIC_TRIES; attempt++) {
+            long stamp = stateLock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    long v1 = 0, v2 = 0;
+                    MatchFeatures mf = null;
+                    if (cache != null) {
+                        v1 = getPlayerVersion(player1);
+                        v2 = getPlayerVersion(player2);
+                        if (!stateLock.validate(stamp)) {
+                            Thread.onSpinWait();
+                            continue;
+                        }
+                        mf = cache.get(key, v1, v2);
+                    }
+                    if (mf == null) {
+                        mf = computeFeatures(player1, player2, surface, round, player1Rank, player2Rank, bestOf, -1);
+                        if (!stateLock.validate(stamp)) mf = null;
+                        else if (cache != null) cache.put(key, v1, v2, mf);
+                    }
+                    if (mf != null) return mf;
+                } catch (RuntimeException e) {
+                    if (stateLock.validate(stamp)) throw e; // not caused by a concurrent write
+                }
+            }
+            Thread.onSpinWait();
+        }
+
+        // the writer kept the lock (buildAllParallel) or kept applying matches: wait for it instead of spinning
+        long stamp = stateLock.readLock();
+        try {
+            if (cache == null) return computeFeatures(player1, player2, surface, round, player1Rank, player2Rank, bestOf, -1);
+            long v1 = getPlayerVersion(player1);
+            long v2 = getPlayerVersion(player2);
+            MatchFeatures mf = cache.get(key, v1, v2);
+            if (mf == null) {
+                mf = computeFeatures(player1, player2, surface, round, player1Rank, player2Rank, bestOf, -1);
+                cache.put(key, v1, v2, mf);
+            }
+            return mf;
+        } finally {
+            stateLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Cache rows returned by snapshotFeatures; null disables caching. A cache serves one FeatureEngineer.
+     */
+    public void setPairCache(PairFeatureCache pairCache) {
+        if (pairCache != null) pairCache.bind(this::getPlayerVersion);
+        this.pairCache = pairCache;
+    }
+
+    public PairFeatureCache getPairCache() {
+        return pairCache;
+    }
+
+    /**
+     * Number of matches applied so far. Changes exactly once per ingested match.
+     */
+    public long stateVersion() {
+        return stateVersion;
+    }
+
+    private long getPlayerVersion(String player) {
+        long[] v = playerVersion.get(player);
+        return v == null ? 0L : v[0];
+    }
+
+    private void recordVersion(ModelData m, long version) {
+        playerVersion.computeIfAbsent(m.getWinner_name(), k -> new long[1])[0] = version;
+        playerVersion.computeIfAbsent(m.getLoser_name(), k -> new long[1])[0] = version;
+    }
+
+    /**
+     * Create every per-player map entry applyMatch/recordVersion would create for a player's first match.
+     * Empty entries read exactly like absent ones, so this changes no feature values.
+     */
+    private void preparePlayer(String player, int tourneyDate) {
+        playerVersion.computeIfAbsent(player, k -> new long[1]);
+        decayed.ensurePlayer(player, tourneyDate);
+        historyByPlayer.computeIfAbsent(player, k -> new LinkedList<>());
+        surfaceCountsByPlayer.computeIfAbsent(player, k -> new ConcurrentHashMap<>());
+        h2hWins.computeIfAbsent(player, k -> new ConcurrentHashMap<>());
+    }
+
+    private void applyMatch(ModelData m) {
+        decayed.recordMatch(m);
+        if (offHeap != null) {
+            offHeap.recordMatch(m);
+            return;
+        }
+        pushToHistory(m);
+        updateH2HAfterMatch(m);
+        updateSurfaceAfterMatch(m);
+    }
+
+    /**
+     * Compute the winner-first feature row for a match from the state built so far.
+     * Does not update any state.
+     */
+    private MatchFeatures computeFeatures(ModelData m) {
+        // Determine names - use winner_name/loser_name and map to player1/player2 consistently.
+        // For MatchFeatures we want player1 and player2 (we'll choose player1 = winnerName for labeling ease
+        // but to keep consistent mapping for train/test we instead set player1=winnerName if that matches your previous pipeline.
+        // Here we'll stick to CSV order: player1 = winner_name, player2 = loser_name and winner label = 1.
+        return computeFeatures(m.getWinner_name(), m.getLoser_name(), m.getSurface(), m.getRound(),
+                m.getWinner_rank(), m.getLoser_rank(), m.getBest_of(), 1);
+    }
+
+    private MatchFeatures computeFeatures(String player1, String player2, String surface, String round,
+                                          Integer rank1, Integer rank2, int bestOf, int label) {
+        // Get current ranks / elos (if null, set default)
+        double player1Rank = (rank1 != null) ? rank1 : 9999;
+        double player2Rank = (rank2 != null) ? rank2 : 9999;
+        double player1Elo = player1Rank > 0 && player1Rank < 9999 ? 2000.0 - player1Rank : 1500.0; // lightweight proxy if no Elo
+        double player2Elo = player2Rank > 0 && player2Rank < 9999 ? 2000.0 - player2Rank : 1500.0;
+
+        // Calculate H2H counts & rates BEFORE current match (important: use historyByPlayer)
+        int h2hP1Wins = getH2hWins(player1, player2);
+        int h2hP2Wins = getH2hWins(player2, player1);
+        double h2hRateP1 = computeRate(h2hP1Wins, h2hP1Wins + h2hP2Wins);
+        double h2hRateP2 = computeRate(h2hP2Wins, h2hP1Wins + h2hP2Wins);
+
+        // Form stats: last N matches for both players
+        int formWinsP1 = getRecentWins(player1, ROLLING_WINDOW), formTotalP1 = getRecentTotal(player1, ROLLING_WINDOW);
+        int formWinsP2 = getRecentWins(player2, ROLLING_WINDOW), formTotalP2 = getRecentTotal(player2, ROLLING_WINDOW);
+        double formRateP1 = computeRate(formWinsP1, formTotalP1);
+        double formRateP2 = computeRate(formWinsP2, formTotalP2);
+
+        // Rolling averages from last N (win pct, aces avg, df avg, bp conversion)
+        double winPctP1 = getRollingWinPct(player1, ROLLING_WINDOW);
+        double winPctP2 = getRollingWinPct(player2, ROLLING_WINDOW);
+
+        double aceAvgP1 = getRollingDoubleStatAvg(player1, "aces", ROLLING_WINDOW);
+        double aceAvgP2 = getRollingDoubleStatAvg(player2, "aces", ROLLING_WINDOW);
+
+        double dfAvgP1 = getRollingDoubleStatAvg(player1, "double_faults", ROLLING_WINDOW);
+        double dfAvgP2 = getRollingDoubleStatAvg(player2, "double_faults", ROLLING_WINDOW);
+
+        double bpConvP1 = getRollingBPConversion(player1, ROLLING_WINDOW);
+        double bpConvP2 = getRollingBPConversion(player2, ROLLING_WINDOW);
+
+        // Surface-specific performance (win% and ace rate)
+        double surfaceWinPctP1 = getSurfaceWinPct(player1, surface);
+        double surfaceWinPctP2 = getSurfaceWinPct(player2, surface);
+
+        double surfaceAceRateP1 = getSurfaceAvgDoubleStat(player1, surface, "aces");
+        double surfaceAceRateP2 = getSurfaceAvgDoubleStat(player2, surface, "aces");
+
+        // Serve-point Markov model: each server's decayed serve rate against the receiver's decayed return rate
+        double servePointP1 = ServeMarkovModel.servePointProbability(decayed.servePointRate(player1), decayed.returnPointRate(player2));
+        double servePointP2 = ServeMarkovModel.servePointProbability(decayed.servePointRate(player2), decayed.returnPointRate(player1));
+        double markovP1 = ServeMarkovModel.matchProbability(servePointP1, servePointP2, bestOf);
+
+        // Odds (if you have odds in ModelData, else 0)
+        double oddsP1 = 0.0;
+        double oddsP2 = 0.0;
+
+        // Build MatchFeatureRow object.
+        return new MatchFeatureRow(
+                player1, player2, surface, round,
+                player1Rank, player2Rank, player1Elo, player2Elo,
+                h2hP1Wins, h2hP2Wins, h2hRateP1, h2hRateP2,
+                formWinsP1, Math.max(0, formTotalP1 - formWinsP1), formRateP1,
+                formWinsP2, Math.max(0, formTotalP2 - formWinsP2), formRateP2,
+                oddsP1, oddsP2,
+                winPctP1, aceAvgP1, dfAvgP1, bpConvP1,
+                winPctP2, aceAvgP2, dfAvgP2, bpConvP2,
+                h2hRateP1, h2hRateP2,
+                surfaceWinPctP1, surfaceWinPctP2,
+                surfaceAceRateP1, surfaceAceRateP2,
+                decayed.winRate(player1), decayed.winRate(player2),
+                decayed.aceRate(player1), decayed.aceRate(player2),
+                decayed.dfRate(player1), decayed.dfRate(player2),
+                decayed.bpSavedRate(player1), decayed.bpSavedRate(player2),
+                decayed.surfaceWinRate(player1, surface), decayed.surfaceWinRate(player2, surface),
+                servePointP1, servePointP2, markovP1,
+                label // 1 when player1 is winner_name (if you need original label mapping change accordingly)
+        );
+    }
+
     // -------------------------
     // History builders / helpers
     // -------------------------
@@ -133,9 +428,9 @@ public class FeatureEngineer {
         historyByPlayer.computeIfAbsent(winnerName, k -> new LinkedList<>()).add(m);
         historyByPlayer.computeIfAbsent(loserName, k -> new LinkedList<>()).add(m);
 
-        // Cap lists to reasonable size (e.g., 200) to avoid memory blow-up
-        trimHistory(winnerName, 200);
-        trimHistory(loserName, 200);
+        // Cap lists to reasonable size to avoid memory blow-up
+        trimHistory(winnerName, HISTORY_CAP);
+        trimHistory(loserName, HISTORY_CAP);
     }
 
     private void trimHistory(String player, int cap) {
@@ -148,9 +443,7 @@ public class FeatureEngineer {
         String w = m.getWinner_name();
         String l = m.getLoser_name();
         // increment w vs l
-        h2hWins.computeIfAbsent(w, k -> new HashMap<>());
-        Map<String, Integer> winsMap = h2hWins.get(w);
-        winsMap.put(l, winsMap.getOrDefault(l, 0) + 1);
+        counter(h2hWins.computeIfAbsent(w, k -> new ConcurrentHashMap<>()), l, 1)[0]++;
     }
 
     private void updateSurfaceAfterMatch(ModelData m) {
@@ -158,38 +451,56 @@ public class FeatureEngineer {
         String l = m.getLoser_name();
         String surface = m.getSurface();
 
-        surfaceCountsByPlayer.computeIfAbsent(w, k -> new HashMap<>());
-        surfaceCountsByPlayer.computeIfAbsent(l, k -> new HashMap<>());
+        surfaceCountsByPlayer.computeIfAbsent(w, k -> new ConcurrentHashMap<>());
+        surfaceCountsByPlayer.computeIfAbsent(l, k -> new ConcurrentHashMap<>());
 
         Map<String, int[]> wMap = surfaceCountsByPlayer.get(w);
         Map<String, int[]> lMap = surfaceCountsByPlayer.get(l);
 
-        int[] wCounts = wMap.getOrDefault(surface, new int[]{0,0}); // [wins, total]
+        int[] wCounts = counter(wMap, surface, 2); // [wins, total]
         wCounts[0] = wCounts[0] + 1; // winner won on this surface
         wCounts[1] = wCounts[1] + 1;
-        wMap.put(surface, wCounts);
 
-        int[] lCounts = lMap.getOrDefault(surface, new int[]{0,0});
+        int[] lCounts = counter(lMap, surface, 2);
         lCounts[1] = lCounts[1] + 1; // loser played on this surface but lost
-        lMap.put(surface, lCounts);
+    }
+
+    /**
+     * The counter array under key, created if missing. A plain get / put is enough since only the owning player's
+     * match writes to its inner map, and unlike ConcurrentHashMap.computeIfAbsent it allocates no reservation
+     * node for a new key.
+     */
+    private static int[] counter(Map<String, int[]> map, String key, int size) {
+        int[] counts = map.get(key);
+        if (counts == null) {
+            counts = new int[size];
+            map.put(key, counts);
+        }
+        return counts;
     }
 
     // -------------------------
     // Feature computation helpers
+    // Package-private so AllocationBudgetTest can measure them; none of them allocate on the heap backend.
     // -------------------------
-    private int getH2hWins(String player, String opponent) {
-        if (!h2hWins.containsKey(player)) return 0;
-        return h2hWins.get(player).getOrDefault(opponent, 0);
+    int getH2hWins(String player, String opponent) {
+        if (offHeap != null) return offHeap.h2hWins(player, opponent);
+        Map<String, int[]> winsMap = h2hWins.get(player);
+        if (winsMap == null) return 0;
+        int[] wins = winsMap.get(opponent);
+        return wins == null ? 0 : wins[0];
     }
 
-    private double getH2hWinRate(String player, String opponent) {
+    double getH2hWinRate(String player, String opponent) {
         int a = getH2hWins(player, opponent);
         int b = getH2hWins(opponent, player);
         return computeRate(a, a + b);
     }
 
-    private int[] getRecentWinCounts(String player, int n) {
-        LinkedList<ModelData> hist = historyByPlayer.getOrDefault(player, new LinkedList<>());
+    int getRecentWins(String player, int n) {
+        if (offHeap != null) return offHeap.recentWins(player, n);
+        LinkedList<ModelData> hist = historyByPlayer.get(player);
+        if (hist == null) return 0;
         int wins = 0;
         int total = 0;
         Iterator<ModelData> it = hist.descendingIterator(); // newest first
@@ -199,18 +510,25 @@ public class FeatureEngineer {
             if (player.equals(m.getWinner_name())) wins++;
             total++;
         }
-        return new int[]{wins, total};
+        return wins;
+    }
+
+    int getRecentTotal(String player, int n) {
+        if (offHeap != null) return offHeap.recentTotal(player, n);
+        LinkedList<ModelData> hist = historyByPlayer.get(player);
+        return hist == null ? 0 : Math.min(n, hist.size());
     }
 
-    private double getRollingWinPct(String player, int n) {
-        int[] counts = getRecentWinCounts(player, n);
-        return computeRate(counts[0], counts[1]);
+    double getRollingWinPct(String player, int n) {
+        return computeRate(getRecentWins(player, n), getRecentTotal(player, n));
     }
 
     // For generic double stat (aces, double_faults) stored in ModelData fields,
     // we read from winner/loser columns based on player's role in that match
-    private double getRollingDoubleStatAvg(String player, String field, int window) {
-        LinkedList<ModelData> hist = historyByPlayer.getOrDefault(player, new LinkedList<>());
+    double getRollingDoubleStatAvg(String player, String field, int window) {
+        if (offHeap != null) return offHeap.rollingStatAvg(player, field, window);
+        LinkedList<ModelData> hist = historyByPlayer.get(player);
+        if (hist == null) return 0.0;
         int taken = 0;
         double sum = 0.0;
         Iterator<ModelData> it = hist.descendingIterator();
@@ -239,40 +557,43 @@ public class FeatureEngineer {
         return taken > 0 ? sum / taken : 0.0;
     }
 
-    private double getRollingBPConversion(String player, int window) {
-        LinkedList<ModelData> hist = historyByPlayer.getOrDefault(player, new LinkedList<>());
+    double getRollingBPConversion(String player, int window) {
+        if (offHeap != null) return offHeap.rollingBPConversion(player, window);
+        LinkedList<ModelData> hist = historyByPlayer.get(player);
+        if (hist == null) return 0.0;
         int taken = 0;
         double sum = 0.0;
         Iterator<ModelData> it = hist.descendingIterator();
         while (it.hasNext() && taken < window) {
             ModelData m = it.next();
-            Double conv = null;
+            Integer saved, faced;
             if (player.equals(m.getWinner_name())) {
-                Integer saved = m.getW_bpSaved();
-                Integer faced = m.getW_bpFaced();
-                conv = (faced != null && faced > 0) ? (double) saved / faced : 0.0;
+                saved = m.getW_bpSaved();
+                faced = m.getW_bpFaced();
             } else if (player.equals(m.getLoser_name())) {
-                Integer saved = m.getL_bpSaved();
-                Integer faced = m.getL_bpFaced();
-                conv = (faced != null && faced > 0) ? (double) saved / faced : 0.0;
-            }
-            if (conv != null) {
-                sum += conv;
-                taken++;
+                saved = m.getL_bpSaved();
+                faced = m.getL_bpFaced();
+            } else {
+                continue;
             }
+            sum += (faced != null && faced > 0) ? (double) saved / faced : 0.0;
+            taken++;
         }
         return taken > 0 ? sum / taken : 0.0;
     }
 
-    private double getSurfaceWinPct(String player, String surface) {
-        Map<String, int[]> map = surfaceCountsByPlayer.getOrDefault(player, Collections.emptyMap());
-        int[] counts = map.getOrDefault(surface, new int[]{0,0}); // [wins, total]
-        return computeRate(counts[0], counts[1]);
+    double getSurfaceWinPct(String player, String surface) {
+        if (offHeap != null) return offHeap.surfaceWinPct(player, surface);
+        Map<String, int[]> map = surfaceCountsByPlayer.get(player);
+        int[] counts = map == null ? null : map.get(surface); // [wins, total]
+        return counts == null ? 0.0 : computeRate(counts[0], counts[1]);
     }
 
-    private double getSurfaceAvgDoubleStat(String player, String surface, String field) {
+    double getSurfaceAvgDoubleStat(String player, String surface, String field) {
+        if (offHeap != null) return offHeap.surfaceStatAvg(player, surface, field);
         // average of stat only on matches played on given surface
-        LinkedList<ModelData> hist = historyByPlayer.getOrDefault(player, new LinkedList<>());
+        LinkedList<ModelData> hist = historyByPlayer.get(player);
+        if (hist == null) return 0.0;
         int taken = 0;
         double sum = 0.0;
         Iterator<ModelData> it = hist.descendingIterator();
@@ -298,39 +619,4 @@ public class FeatureEngineer {
     private double computeRate(int wins, int total) {
         return total > 0 ? (double) wins / total : 0.0;
     }
-    public static List<MatchResult> loadMatches(Reader reader) throws IOException {
-        List<MatchResult> matches = new ArrayList<>();
-        Iterable<CSVRecord> records = CSVFormat.DEFAULT
-                .withFirstRecordAsHeader()
-                .parse(reader);
-
-        for (CSVRecord record : records) {
-            matches.add(MatchResult.fromCSV(record));
-        }
-        return matches;
-    }
-
-    public static List<MatchFeatures> generateFeatures(List<MatchResult> matches) {
-        List<MatchFeatures> featuresList = new ArrayList<>();
-
-        // Example: build player histories, rolling stats, etc.
-        Map<String, List<MatchResult>> playerHistory = new HashMap<>();
-
-        for (MatchResult match : matches) {
-            // Ensure both players have lists
-            playerHistory.putIfAbsent(match.getWinner(), new ArrayList<>());
-            playerHistory.putIfAbsent(match.getLoser(), new ArrayList<>());
-
-            // Generate features
-            MatchFeatures features = createMatchFeatures(match, playerHistory);
-            featuresList.add(features);
-
-            // Add match to histories
-            playerHistory.get(match.getWinner()).add(match);
-            playerHistory.get(match.getLoser()).add(match);
-        }
-
-        return featuresList;
-    }
-
 }
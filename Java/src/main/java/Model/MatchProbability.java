@@ -0,0 +1,47 @@
+package Model;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Probability that player1 beats player2 in a single match.
+ * Implementations are queried once per pair when a simulation is set up, so they may be slow.
+ */
+@FunctionalInterface
+public interface MatchProbability {
+
+    double winProbability(String player1, String player2, String surface, int bestOf);
+
+    /**
+     * Elo win expectancy from the given ratings (e.g. OffHeapPlayerState::rating).
+     * Elo is fitted mostly on best-of-3 results, so best-of-5 matches are rescaled through the implied set
+     * win probability.
+     */
+    static MatchProbability elo(ToDoubleFunction<String> ratingOf) {
+        return (p1, p2, surface, bestOf) -> {
+            double p = eloExpectancy(ratingOf.applyAsDouble(p1), ratingOf.applyAsDouble(p2));
+            return bestOf == 5 ? bestOfFiveFromBestOfThree(p) : p;
+        };
+    }
+
+    /**
+     * Expected score of a player rated rating1 against one rated rating2 (the standard 400-point Elo curve).
+     */
+    static double eloExpectancy(double rating1, double rating2) {
+        return 1.0 / (1.0 + Math.pow(10.0, (rating2 - rating1) / 400.0));
+    }
+
+    /**
+     * Best-of-5 win probability for a player whose best-of-3 win probability is p, assuming i.i.d. sets.
+     */
+    static double bestOfFiveFromBestOfThree(double p) {
+        // invert P3(s) = s^2 (3 - 2s) by bisection, then P5(s) = s^3 (10 - 15s + 6s^2)
+        double lo = 0.0, hi = 1.0;
+        for (int i = 0; i < 50; i++) {
+            double s = (lo + hi) / 2;
+            if (s * s * (3 - 2 * s) < p) lo = s;
+            else hi = s;
+        }
+        double s = (lo + hi) / 2;
+        return s * s * s * (10 - 15 * s + 6 * s * s);
+    }
+}
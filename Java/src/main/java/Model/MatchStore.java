@@ -0,0 +1,87 @@
+package Model;
+
+import Objects.ModelData;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MatchStore - immutable, column-oriented copy of the match list for repeated passes over history.
+ *
+ * Usage:
+ *  - MatchStore store = MatchStore.from(matchesChronological);
+ *  - share it between any number of threads; nothing in it is ever written after construction
+ *
+ * Notes:
+ *  - Players are mapped to dense indices 0..playerCount()-1 in order of first appearance.
+ *  - surface(i) is a Surfaces bucket.
+ */
+public final class MatchStore {
+
+    private final String[] playerNames;
+    private final Map<String, Integer> indexByName;
+    private final int[] winner;
+    private final int[] loser;
+    private final byte[] surface;
+    private final int[] epochDay;
+    private final short[] year;
+    private final byte[] bestOf;
+
+    private MatchStore(String[] playerNames, Map<String, Integer> indexByName, int[] winner, int[] loser,
+                       byte[] surface, int[] epochDay, short[] year, byte[] bestOf) {
+        this.playerNames = playerNames;
+        this.indexByName = indexByName;
+        this.winner = winner;
+        this.loser = loser;
+        this.surface = surface;
+        this.epochDay = epochDay;
+        this.year = year;
+        this.bestOf = bestOf;
+    }
+
+    public static MatchStore from(List<ModelData> matchesChronological) {
+        int n = matchesChronological.size();
+        Map<String, Integer> index = new HashMap<>();
+        int[] winner = new int[n], loser = new int[n], epochDay = new int[n];
+        byte[] surface = new byte[n], bestOf = new byte[n];
+        short[] year = new short[n];
+
+        for (int i = 0; i < n; i++) {
+            ModelData m = matchesChronological.get(i);
+            winner[i] = index.computeIfAbsent(m.getWinner_name(), k -> index.size());
+            loser[i] = index.computeIfAbsent(m.getLoser_name(), k -> index.size());
+            surface[i] = (byte) Surfaces.bucket(m.getSurface());
+            epochDay[i] = (int) DecayedPlayerStats.epochDay(m.getTourney_date());
+            year[i] = (short) (m.getTourney_date() / 10000);
+            bestOf[i] = (byte) m.getBest_of();
+        }
+
+        String[] names = new String[index.size()];
+        index.forEach((name, i) -> names[i] = name);
+        return new MatchStore(names, Map.copyOf(index), winner, loser, surface, epochDay, year, bestOf);
+    }
+
+    public int size() { return winner.length; }
+    public int playerCount() { return playerNames.length; }
+
+    public int winner(int match) { return winner[match]; }
+    public int loser(int match) { return loser[match]; }
+    public int surface(int match) { return surface[match]; }
+    public int epochDay(int match) { return epochDay[match]; }
+    public int year(int match) { return year[match]; }
+    public int bestOf(int match) { return bestOf[match]; }
+
+    public String playerName(int player) { return playerNames[player]; }
+
+    /** Dense index of the player, or -1 if they never played. */
+    public int playerIndex(String name) {
+        Integer i = indexByName.get(name);
+        return i == null ? -1 : i;
+    }
+
+    public List<String> playerNames() {
+        return Arrays.asList(playerNames.clone());
+    }
+}
@@ -0,0 +1,82 @@
+package Model;
+
+import Objects.ModelData;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MatchWaves - groups a chronological match list into waves of mutually independent matches.
+ *
+ * Usage:
+ *  - MatchWaves waves = MatchWaves.plan(matchesChronological);
+ *  - for w in 0..waveCount()-1: every match(i) for i in [waveStart(w), waveEnd(w)) can be processed concurrently
+ *
+ * Notes:
+ *  - A match's wave is one past the later wave of either player's previous match, so no player appears twice
+ *    in a wave and every player's matches land in strictly increasing waves, in list order.
+ *  - Player state only ever depends on that player's own earlier matches, so processing waves in order gives
+ *    exactly the result of the sequential pass.
+ *  - A wave is typically one round of every tournament played that week, plus the first matches of players
+ *    whose previous match was long ago. Within a wave, matches keep their list order.
+ */
+public final class MatchWaves {
+
+    private final int[] order;      // match indices grouped by wave
+    private final int[] waveStart;  // wave w = order[waveStart[w] .. waveStart[w + 1])
+
+    private MatchWaves(int[] order, int[] waveStart) {
+        this.order = order;
+        this.waveStart = waveStart;
+    }
+
+    public static MatchWaves plan(List<ModelData> matchesChronological) {
+        int n = matchesChronological.size();
+        int[] waveOf = new int[n];
+        Map<String, int[]> lastWave = new HashMap<>(); // int[1] so updates don't box
+        int waves = 0;
+
+        for (int i = 0; i < n; i++) {
+            ModelData m = matchesChronological.get(i);
+            int[] w = lastWave.computeIfAbsent(m.getWinner_name(), k -> new int[]{-1});
+            int[] l = lastWave.computeIfAbsent(m.getLoser_name(), k -> new int[]{-1});
+            int wave = Math.max(w[0], l[0]) + 1;
+            w[0] = wave;
+            l[0] = wave;
+            waveOf[i] = wave;
+            waves = Math.max(waves, wave + 1);
+        }
+
+        // counting sort by wave; stable, so list order is kept inside a wave
+        int[] waveStart = new int[waves + 1];
+        for (int i = 0; i < n; i++) waveStart[waveOf[i] + 1]++;
+        for (int w = 0; w < waves; w++) waveStart[w + 1] += waveStart[w];
+        int[] next = waveStart.clone();
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[next[waveOf[i]]++] = i;
+
+        return new MatchWaves(order, waveStart);
+    }
+
+    public int waveCount() { return waveStart.length - 1; }
+    public int waveStart(int wave) { return waveStart[wave]; }
+    public int waveEnd(int wave) { return waveStart[wave + 1]; }
+
+    /** Index into the planned list of the i-th match in wave order. */
+    public int match(int i) { return order[i]; }
+
+    public int size() { return order.length; }
+
+    public int maxWidth() {
+        int max = 0;
+        for (int w = 0; w < waveCount(); w++) max = Math.max(max, waveEnd(w) - waveStart(w));
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d matches in %d waves (avg width %.1f, max %d)",
+                size(), waveCount(), waveCount() > 0 ? (double) size() / waveCount() : 0.0, maxWidth());
+    }
+}
@@ -0,0 +1,464 @@
+package Model;
+
+import Objects.ModelData;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OffHeapPlayerState - per-player state for FeatureEngineer kept outside the Java heap.
+ *
+ * Usage:
+ *  - OffHeapPlayerState.inMemory(expectedPlayers) or OffHeapPlayerState.mapped(file, expectedPlayers)
+ *  - pass it to new FeatureEngineer(matches, state)
+ *  - close() when done to release the memory / unmap the file
+ *
+ * Layout:
+ *  - one fixed-size record per player (RECORD_BYTES), addressed by a dense player slot:
+ *      [count:int][head:int][rating:double]
+ *      [ring: RING_CAPACITY x (flags:byte, surface:byte, ace:short, df:short, bpSaved:short, bpFaced:short)]
+ *      [surface aggregates: Surfaces.BUCKETS x (wins:int, total:int)]
+ *  - head-to-head wins in an open-addressing table of (pairKey:long, wins:int, pad:int) entries
+ *
+ * Notes:
+ *  - Only the name -> slot index lives on the heap; everything that grows with match count is off-heap,
+ *    so GC work does not grow with history size.
+ *  - The ring keeps as many matches as FeatureEngineer's heap history (HISTORY_CAP), and every read follows the
+ *    heap helper it replaces, so both backends produce the same features. The one exception: surfaces other
+ *    than Hard/Clay/Grass/Carpet share a single bucket here, where the heap maps keep each spelling apart.
+ *  - A mapped backing file is scratch space, not a persistent store: it is truncated on open and the
+ *    player index is not written to it.
+ *  - Not thread-safe on its own. FeatureEngineer serializes writes and validates optimistic reads. Segments
+ *    replaced while growing are released right away; a reader still on the old segment fails with
+ *    IllegalStateException, which FeatureEngineer treats as a torn read (its stamp is already invalid). If a
+ *    reader is inside the old segment at that very moment, the release is retried on the next grow or close().
+ *  - java.lang.foreign is a preview API in Java 21, so this is a preview class file: any JVM that loads it must
+ *    run with --enable-preview (surefire passes it for the tests). Other classes do not need the flag.
+ */
+public final class OffHeapPlayerState implements AutoCloseable {
+
+    public static final int RING_CAPACITY = FeatureEngineer.HISTORY_CAP;
+    public static final double INITIAL_RATING = 1500.0;
+    public static final double ELO_K = 32.0;
+
+    // record layout (byte offsets)
+    private static final long OFF_COUNT = 0;
+    private static final long OFF_HEAD = 4;
+    private static final long OFF_RATING = 8;
+    private static final long OFF_RING = 16;
+    private static final long ENTRY_BYTES = 10;
+    private static final long OFF_SURFACE = OFF_RING + RING_CAPACITY * ENTRY_BYTES;
+    private static final long SURFACE_BYTES = 8;
+    static final long RECORD_BYTES = align8(OFF_SURFACE + Surfaces.BUCKETS * SURFACE_BYTES);
+
+    // ring entry layout
+    private static final long E_FLAGS = 0, E_SURFACE = 1, E_ACE = 2, E_DF = 4, E_BP_SAVED = 6, E_BP_FACED = 8;
+    private static final int F_WON = 1, F_ACE = 2, F_DF = 4, F_BP = 8; // F_ACE/F_DF/F_BP: value present
+
+    // h2h table layout
+    private static final long H2H_ENTRY_BYTES = 16;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED;
+    private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED;
+    private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED;
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED;
+
+    private final Map<String, Integer> slotByName = new ConcurrentHashMap<>(); // read by FeatureEngineer snapshot readers
+    private final Path backingFile; // null when purely in memory
+    private final List<Arena> busyArenas = new ArrayList<>(); // outgrown segments a reader held while released
+
+    private Arena recordsArena;
+    private MemorySegment records;
+    private int recordCapacity;
+
+    private Arena h2hArena;
+    private MemorySegment h2h;
+    private int h2hCapacity; // power of two
+    private int h2hSize;
+
+    private OffHeapPlayerState(Path backingFile, int expectedPlayers) throws IOException {
+        this.backingFile = backingFile;
+        if (backingFile != null) {
+            FileChannel.open(backingFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING).close();
+        }
+        this.recordCapacity = Math.max(16, expectedPlayers);
+        this.records = allocateRecords(recordCapacity);
+        this.h2hCapacity = Integer.highestOneBit(Math.max(64, expectedPlayers * 8) - 1) << 1;
+        this.h2hArena = Arena.ofShared();
+        this.h2h = h2hArena.allocate(h2hCapacity * H2H_ENTRY_BYTES, 8);
+    }
+
+    /**
+     * State held in native memory owned by this instance.
+     */
+    public static OffHeapPlayerState inMemory(int expectedPlayers) {
+        try {
+            return new OffHeapPlayerState(null, expectedPlayers);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // unreachable without a backing file
+        }
+    }
+
+    /**
+     * Player records memory-mapped from the given file, so the OS can page them out under pressure.
+     */
+    public static OffHeapPlayerState mapped(Path file, int expectedPlayers) throws IOException {
+        return new OffHeapPlayerState(file, expectedPlayers);
+    }
+
+    // -------------------------
+    // Updates
+    // -------------------------
+
+    /**
+     * Apply a finished match to both players' records and the h2h table.
+     */
+    public void recordMatch(ModelData m) {
+        int w = slotOf(m.getWinner_name());
+        int l = slotOf(m.getLoser_name());
+        int surface = Surfaces.bucket(m.getSurface());
+
+        pushEntry(w, true, surface, m.getW_ace(), m.getW_df(), m.getW_bpSaved(), m.getW_bpFaced());
+        pushEntry(l, false, surface, m.getL_ace(), m.getL_df(), m.getL_bpSaved(), m.getL_bpFaced());
+
+        addSurface(w, surface, true);
+        addSurface(l, surface, false);
+
+        updateRatings(w, l);
+        incrementH2h(w, l);
+    }
+
+    private void pushEntry(int slot, boolean won, int surface, Integer ace, Integer df, Integer bpSaved, Integer bpFaced) {
+        long base = recordBase(slot);
+        int head = records.get(INT, base + OFF_HEAD);
+        long e = base + OFF_RING + head * ENTRY_BYTES;
+
+        int flags = won ? F_WON : 0;
+        if (ace != null) flags |= F_ACE;
+        if (df != null) flags |= F_DF;
+        if (bpFaced != null) flags |= F_BP;
+        records.set(ValueLayout.JAVA_BYTE, e + E_FLAGS, (byte) flags);
+        records.set(ValueLayout.JAVA_BYTE, e + E_SURFACE, (byte) surface);
+        records.set(SHORT, e + E_ACE, clampShort(ace));
+        records.set(SHORT, e + E_DF, clampShort(df));
+        records.set(SHORT, e + E_BP_SAVED, clampShort(bpSaved));
+        records.set(SHORT, e + E_BP_FACED, clampShort(bpFaced));
+
+        records.set(INT, base + OFF_HEAD, (head + 1) % RING_CAPACITY);
+        records.set(INT, base + OFF_COUNT, records.get(INT, base + OFF_COUNT) + 1);
+    }
+
+    private void addSurface(int slot, int surface, boolean won) {
+        long s = recordBase(slot) + OFF_SURFACE + surface * SURFACE_BYTES;
+        if (won) records.set(INT, s, records.get(INT, s) + 1);
+        records.set(INT, s + 4, records.get(INT, s + 4) + 1);
+    }
+
+    private void updateRatings(int w, int l) {
+        long wr = recordBase(w) + OFF_RATING;
+        long lr = recordBase(l) + OFF_RATING;
+        double rw = records.get(DOUBLE, wr);
+        double rl = records.get(DOUBLE, lr);
+        double expectedW = MatchProbability.eloExpectancy(rw, rl);
+        double delta = ELO_K * (1.0 - expectedW);
+        records.set(DOUBLE, wr, rw + delta);
+        records.set(DOUBLE, lr, rl - delta);
+    }
+
+    // -------------------------
+    // Reads (mirror the FeatureEngineer helpers)
+    // -------------------------
+
+    public int h2hWins(String player, String opponent) {
+        Integer a = slotByName.get(player);
+        Integer b = slotByName.get(opponent);
+        if (a == null || b == null) return 0;
+        long idx = findH2h(pairKey(a, b));
+        return idx < 0 ? 0 : h2h.get(INT, idx + 8);
+    }
+
+    /** Wins among the player's last n matches (n capped at RING_CAPACITY). */
+    public int recentWins(String player, int n) {
+        Integer slot = slotByName.get(player);
+        if (slot == null) return 0;
+        long base = recordBase(slot);
+        int taken = Math.min(n, available(base));
+        int wins = 0;
+        for (int i = 0; i < taken; i++) {
+            if ((records.get(ValueLayout.JAVA_BYTE, entry(base, i) + E_FLAGS) & F_WON) != 0) wins++;
+        }
+        return wins;
+    }
+
+    /** Number of matches among the player's last n (n capped at RING_CAPACITY). */
+    public int recentTotal(String player, int n) {
+        Integer slot = slotByName.get(player);
+        return slot == null ? 0 : Math.min(n, available(recordBase(slot)));
+    }
+
+    /**
+     * Average of "aces" or "double_faults" over the last n matches where the value is present.
+     */
+    public double rollingStatAvg(String player, String field, int n) {
+        Integer slot = slotByName.get(player);
+        if (slot == null) return 0.0;
+        long base = recordBase(slot);
+        int avail = available(base);
+        boolean aces = "aces".equals(field);
+        int flag = aces ? F_ACE : F_DF;
+        long off = aces ? E_ACE : E_DF;
+        int taken = 0;
+        double sum = 0.0;
+        for (int i = 0; i < avail && taken < n; i++) {
+            long e = entry(base, i);
+            if ((records.get(ValueLayout.JAVA_BYTE, e + E_FLAGS) & flag) == 0) continue;
+            sum += records.get(SHORT, e + off);
+            taken++;
+        }
+        return taken > 0 ? sum / taken : 0.0;
+    }
+
+    /**
+     * Average bpSaved / bpFaced over the last n matches (0 when no break points were faced).
+     */
+    public double rollingBPConversion(String player, int n) {
+        Integer slot = slotByName.get(player);
+        if (slot == null) return 0.0;
+        long base = recordBase(slot);
+        int taken = Math.min(n, available(base));
+        double sum = 0.0;
+        for (int i = 0; i < taken; i++) {
+            long e = entry(base, i);
+            short faced = records.get(SHORT, e + E_BP_FACED);
+            if ((records.get(ValueLayout.JAVA_BYTE, e + E_FLAGS) & F_BP) != 0 && faced > 0) {
+                sum += (double) records.get(SHORT, e + E_BP_SAVED) / faced;
+            }
+        }
+        return taken > 0 ? sum / taken : 0.0;
+    }
+
+    public double surfaceWinPct(String player, String surface) {
+        Integer slot = slotByName.get(player);
+        if (slot == null) return 0.0;
+        long s = recordBase(slot) + OFF_SURFACE + Surfaces.bucket(surface) * SURFACE_BYTES;
+        int total = records.get(INT, s + 4);
+        return total > 0 ? (double) records.get(INT, s) / total : 0.0;
+    }
+
+    /**
+     * Average of "aces" or "double_faults" over the kept matches on this surface where the value is present.
+     */
+    public double surfaceStatAvg(String player, String surface, String field) {
+        Integer slot = slotByName.get(player);
+        if (slot == null) return 0.0;
+        boolean aces = "aces".equals(field);
+        if (!aces && !"double_faults".equals(field)) return 0.0;
+        long base = recordBase(slot);
+        int avail = available(base);
+        int bucket = Surfaces.bucket(surface);
+        int flag = aces ? F_ACE : F_DF;
+        long off = aces ? E_ACE : E_DF;
+        int taken = 0;
+        double sum = 0.0;
+        for (int i = 0; i < avail; i++) {
+            long e = entry(base, i);
+            if (records.get(ValueLayout.JAVA_BYTE, e + E_SURFACE) != bucket) continue;
+            if ((records.get(ValueLayout.JAVA_BYTE, e + E_FLAGS) & flag) == 0) continue;
+            sum += records.get(SHORT, e + off);
+            taken++;
+        }
+        return taken > 0 ? sum / taken : 0.0;
+    }
+
+    /** Elo rating maintained from results alone (K = 32, start 1500). */
+    public double rating(String player) {
+        Integer slot = slotByName.get(player);
+        return slot == null ? INITIAL_RATING : records.get(DOUBLE, recordBase(slot) + OFF_RATING);
+    }
+
+    public int playerCount() {
+        return slotByName.size();
+    }
+
+    /** Bytes of the live record and h2h segments. */
+    public long offHeapBytes() {
+        return records.byteSize() + h2h.byteSize();
+    }
+
+    @Override
+    public void close() {
+        recordsArena.close();
+        h2hArena.close();
+        for (Arena arena : busyArenas) arena.close();
+        busyArenas.clear();
+    }
+
+    // -------------------------
+    // Records
+    // -------------------------
+
+    private int slotOf(String name) {
+        Integer slot = slotByName.get(name);
+        if (slot != null) return slot;
+        int next = slotByName.size();
+        if (next == recordCapacity) growRecords();
+        slotByName.put(name, next);
+        records.set(DOUBLE, recordBase(next) + OFF_RATING, INITIAL_RATING);
+        return next;
+    }
+
+    private MemorySegment allocateRecords(int capacity) throws IOException {
+        long bytes = capacity * RECORD_BYTES;
+        recordsArena = Arena.ofShared();
+        if (backingFile == null) return recordsArena.allocate(bytes, 8);
+        try (FileChannel ch = FileChannel.open(backingFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, bytes, recordsArena);
+        }
+    }
+
+    private void growRecords() {
+        int newCapacity = recordCapacity * 2;
+        Arena oldArena = recordsArena;
+        MemorySegment old = records;
+        try {
+            if (backingFile == null) {
+                MemorySegment grown = allocateRecords(newCapacity);
+                MemorySegment.copy(old, 0, grown, 0, old.byteSize());
+                records = grown;
+            } else {
+                // the file already holds the data; flush and map a larger window over it
+                old.force();
+                records = allocateRecords(newCapacity);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not grow player state to " + newCapacity + " players", e);
+        }
+        recordCapacity = newCapacity;
+        release(oldArena);
+    }
+
+    /**
+     * Free an outgrown segment; if an optimistic reader is inside it right now, keep it for a later attempt.
+     */
+    private void release(Arena arena) {
+        busyArenas.removeIf(OffHeapPlayerState::tryClose);
+        if (!tryClose(arena)) busyArenas.add(arena);
+    }
+
+    private static boolean tryClose(Arena arena) {
+        try {
+            arena.close();
+            return true;
+        } catch (IllegalStateException inUse) {
+            return false;
+        }
+    }
+
+    private static long recordBase(int slot) {
+        return slot * RECORD_BYTES;
+    }
+
+    private int available(long base) {
+        return Math.min(records.get(INT, base + OFF_COUNT), RING_CAPACITY);
+    }
+
+    /** Offset of the i-th most recent ring entry (i = 0 is newest). */
+    private long entry(long base, int i) {
+        // caller guarantees i < available <= RING_CAPACITY, so one wrap-around is enough
+        int pos = records.get(INT, base + OFF_HEAD) - 1 - i;
+        if (pos < 0) pos += RING_CAPACITY;
+        return base + OFF_RING + pos * ENTRY_BYTES;
+    }
+
+    // -------------------------
+    // H2H table
+    // -------------------------
+
+    private static long pairKey(int player, int opponent) {
+        // +1 so that key 0 marks an empty entry
+        return ((long) (player + 1) << 32) | (opponent + 1);
+    }
+
+    private long findH2h(long key) {
+        int mask = h2hCapacity - 1;
+        int i = mix(key) & mask;
+        while (true) {
+            long idx = i * H2H_ENTRY_BYTES;
+            long k = h2h.get(LONG, idx);
+            if (k == key) return idx;
+            if (k == 0) return -1;
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void incrementH2h(int player, int opponent) {
+        if ((h2hSize + 1) * 2 > h2hCapacity) growH2h();
+        long key = pairKey(player, opponent);
+        int mask = h2hCapacity - 1;
+        int i = mix(key) & mask;
+        while (true) {
+            long idx = i * H2H_ENTRY_BYTES;
+            long k = h2h.get(LONG, idx);
+            if (k == key) {
+                h2h.set(INT, idx + 8, h2h.get(INT, idx + 8) + 1);
+                return;
+            }
+            if (k == 0) {
+                h2h.set(LONG, idx, key);
+                h2h.set(INT, idx + 8, 1);
+                h2hSize++;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void growH2h() {
+        Arena oldArena = h2hArena;
+        MemorySegment old = h2h;
+        int oldCapacity = h2hCapacity;
+
+        h2hCapacity = oldCapacity * 2;
+        h2hArena = Arena.ofShared();
+        h2h = h2hArena.allocate(h2hCapacity * H2H_ENTRY_BYTES, 8);
+        int mask = h2hCapacity - 1;
+        for (int j = 0; j < oldCapacity; j++) {
+            long key = old.get(LONG, j * H2H_ENTRY_BYTES);
+            if (key == 0) continue;
+            int i = mix(key) & mask;
+            while (h2h.get(LONG, i * H2H_ENTRY_BYTES) != 0) i = (i + 1) & mask;
+            h2h.set(LONG, i * H2H_ENTRY_BYTES, key);
+            h2h.set(INT, i * H2H_ENTRY_BYTES + 8, old.get(INT, j * H2H_ENTRY_BYTES + 8));
+        }
+        release(oldArena);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // -------------------------
+    // Small helpers
+    // -------------------------
+
+    private static short clampShort(Integer v) {
+        if (v == null) return 0;
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, v));
+    }
+
+    private static long align8(long n) {
+        return (n + 7) & ~7L;
+    }
+}
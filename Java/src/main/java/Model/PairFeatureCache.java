@@ -0,0 +1,230 @@
+package Model;
+
+import Objects.MatchFeatures;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * PairFeatureCache - bounded LRU cache of feature rows for (player1, player2, surface, round, ranks) queries.
+ *
+ * Usage:
+ *  - fe.setPairCache(new PairFeatureCache(50_000)); then call fe.snapshotFeatures(...) as usual
+ *  - read hits(), misses(), invalidations(), expirations(), evictions(), hitRate() for monitoring
+ *
+ * Notes:
+ *  - Each entry remembers the state version of both players when it was computed. FeatureEngineer bumps a
+ *    player's version whenever a match involving them is ingested, so a lookup only hits while neither player
+ *    has played since; entries for other pairs stay valid. A stale entry found by a lookup is dropped.
+ *  - A pair is cached once whatever the query order: keys hold the two players in name order and a query in
+ *    the other order gets the cached row's mirrored view. The mirror's markovWinProbP1 is 1 - p of the cached
+ *    row, which can differ from a direct computation in the last bits.
+ *  - Entries are spread over STRIPES independent LRU maps, each with its own lock and maxEntries / STRIPES
+ *    slots, so concurrent snapshot readers only contend when they hit the same stripe.
+ *  - When a stripe is full, entries whose players have played since (as reported by the FeatureEngineer the
+ *    cache is set on) are swept out before anything live is evicted. The sweep runs at most once per half a
+ *    stripe of inserts, so a stripe full of live entries falls back to plain LRU eviction.
+ */
+public class PairFeatureCache {
+
+    private static final int STRIPES = 16;
+
+    private final int maxEntries;
+    private final Stripe[] stripes;
+    private volatile ToLongFunction<String> playerVersions; // set by FeatureEngineer.setPairCache
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder(); // misses caused by a stale entry
+    private final LongAdder expirations = new LongAdder();   // stale entries swept out before their lookup
+    private final LongAdder evictions = new LongAdder();
+
+    public PairFeatureCache(int maxEntries) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be > 0");
+        this.maxEntries = maxEntries;
+        int count = Math.min(STRIPES, Integer.highestOneBit(maxEntries));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) stripes[i] = new Stripe((maxEntries + count - 1) / count);
+    }
+
+    /**
+     * Where sweeps read the players' current versions; without it stale entries are only dropped on lookup.
+     */
+    void bind(ToLongFunction<String> playerVersions) {
+        this.playerVersions = playerVersions;
+    }
+
+    /**
+     * Cached row for the key if it was computed at exactly these player versions, else null.
+     * Versions are given in query order (player1, player2); the row comes back in query order too.
+     */
+    MatchFeatures get(Key key, long player1Version, long player2Version) {
+        long versionA = key.swapped ? player2Version : player1Version;
+        long versionB = key.swapped ? player1Version : player2Version;
+        Entry e;
+        Stripe s = stripeFor(key);
+        synchronized (s) {
+            e = s.entries.get(key);
+            if (e != null && (e.versionA != versionA || e.versionB != versionB)) {
+                s.entries.remove(key);
+                invalidations.increment();
+                e = null;
+            }
+        }
+        if (e == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return key.swapped ? e.features.mirrored() : e.features;
+    }
+
+    void put(Key key, long player1Version, long player2Version, MatchFeatures features) {
+        Entry e = key.swapped
+                ? new Entry(player2Version, player1Version, features.mirrored())
+                : new Entry(player1Version, player2Version, features);
+        Stripe s = stripeFor(key);
+        synchronized (s) {
+            if (s.entries.size() >= s.capacity && !s.entries.containsKey(key)) s.makeRoom();
+            s.entries.put(key, e);
+        }
+    }
+
+    public void clear() {
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                s.entries.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                size += s.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public long hits() { return hits.sum(); }
+    public long misses() { return misses.sum(); }
+    public long invalidations() { return invalidations.sum(); }
+    public long expirations() { return expirations.sum(); }
+    public long evictions() { return evictions.sum(); }
+
+    public double hitRate() {
+        long h = hits(), lookups = h + misses();
+        return lookups > 0 ? (double) h / lookups : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PairFeatureCache[size=%d/%d, hits=%d, misses=%d, invalidations=%d, expirations=%d, evictions=%d, hitRate=%.3f]",
+                size(), maxEntries, hits(), misses(), invalidations(), expirations(), evictions(), hitRate());
+    }
+
+    private Stripe stripeFor(Key key) {
+        int h = key.hash;
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    // -------------------------
+    // Stripe / key / entry
+    // -------------------------
+
+    /**
+     * One LRU map and its share of the capacity; guarded by its own monitor.
+     */
+    private final class Stripe {
+        final int capacity;
+        final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        int putsSinceSweep;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /** Called with the stripe full, before inserting a new key. */
+        void makeRoom() {
+            ToLongFunction<String> versions = playerVersions;
+            if (versions != null && ++putsSinceSweep >= Math.max(1, capacity / 2)) {
+                putsSinceSweep = 0;
+                int before = entries.size();
+                // versions only grow, so an entry that is stale now can never hit again
+                entries.values().removeIf(e -> versions.applyAsLong(e.features.getPlayer1()) != e.versionA
+                        || versions.applyAsLong(e.features.getPlayer2()) != e.versionB);
+                expirations.add(before - entries.size());
+                if (entries.size() < capacity) return;
+            }
+            Iterator<Entry> eldest = entries.values().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Everything besides player state that goes into a feature row, with the players in name order
+     * (playerA <= playerB); swapped records whether the query named them the other way round.
+     */
+    static final class Key {
+        private final String playerA;
+        private final String playerB;
+        private final String surface;
+        private final String round;
+        private final Integer rankA;
+        private final Integer rankB;
+        private final int bestOf;
+        private final int hash;
+        final boolean swapped;
+
+        Key(String player1, String player2, String surface, String round, Integer player1Rank, Integer player2Rank,
+            int bestOf) {
+            this.swapped = player1 != null && player2 != null && player1.compareTo(player2) > 0;
+            this.playerA = swapped ? player2 : player1;
+            this.playerB = swapped ? player1 : player2;
+            this.rankA = swapped ? player2Rank : player1Rank;
+            this.rankB = swapped ? player1Rank : player2Rank;
+            this.surface = surface;
+            this.round = round;
+            this.bestOf = bestOf;
+            this.hash = Objects.hash(playerA, playerB, surface, round, rankA, rankB, bestOf);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return hash == k.hash && bestOf == k.bestOf
+                    && Objects.equals(playerA, k.playerA) && Objects.equals(playerB, k.playerB)
+                    && Objects.equals(surface, k.surface) && Objects.equals(round, k.round)
+                    && Objects.equals(rankA, k.rankA) && Objects.equals(rankB, k.rankB);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A cached row in key order (player1 = playerA) and the two players' versions it was computed at.
+     */
+    private static final class Entry {
+        final long versionA;
+        final long versionB;
+        final MatchFeatures features;
+
+        Entry(long versionA, long versionB, MatchFeatures features) {
+            this.versionA = versionA;
+            this.versionB = versionB;
+            this.features = features;
+        }
+    }
+}
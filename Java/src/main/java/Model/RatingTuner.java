@@ -0,0 +1,237 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * RatingTuner - searches Elo parameters (K-factor, surface blend weight, inactivity half-life) by walk-forward
+ * evaluation on held-out years.
+ *
+ * Usage:
+ *  - RatingTuner tuner = new RatingTuner(MatchStore.from(matches), 2020, 2024);
+ *  - tuner.grid(ks, weights, halfLives) or tuner.random(500, seed, ...) -> results sorted by log-loss
+ *  - or run Utils.TuneRatings to load the year files and search the default grid
+ *
+ * Model:
+ *  - every player has an overall Elo and one Elo per surface bucket, both starting at
+ *    OffHeapPlayerState.INITIAL_RATING; win expectancy is MatchProbability.eloExpectancy
+ *  - prediction uses (1 - w) * overall + w * surface; both ratings move by K * (result - expected)
+ *  - before a match, each rating is pulled toward 1500 by 2^(-daysInactive / halfLife) (halfLife <= 0: never)
+ *
+ * Notes:
+ *  - All matches update ratings; only matches in [testFromYear, testToYear] are scored, so every prediction
+ *    uses only earlier results.
+ *  - The MatchStore is shared read-only; each evaluation allocates its own rating arrays, so candidates run
+ *    in parallel on the common fork-join pool without any coordination.
+ */
+public class RatingTuner {
+
+    private static final double INITIAL_RATING = OffHeapPlayerState.INITIAL_RATING;
+    private static final double EPS = 1e-15;
+    private static final int NEVER = Integer.MIN_VALUE;
+
+    private final MatchStore store;
+    private final int testFromYear;
+    private final int testToYear;
+
+    public RatingTuner(MatchStore store, int testFromYear, int testToYear) {
+        this.store = store;
+        this.testFromYear = testFromYear;
+        this.testToYear = testToYear;
+    }
+
+    /**
+     * One candidate parameter set.
+     */
+    public static final class Params {
+        private final double kFactor;
+        private final double surfaceWeight;
+        private final double halfLifeDays;
+
+        public Params(double kFactor, double surfaceWeight, double halfLifeDays) {
+            this.kFactor = kFactor;
+            this.surfaceWeight = surfaceWeight;
+            this.halfLifeDays = halfLifeDays;
+        }
+
+        public double getKFactor() { return kFactor; }
+        public double getSurfaceWeight() { return surfaceWeight; }
+        public double getHalfLifeDays() { return halfLifeDays; }
+
+        @Override
+        public String toString() {
+            return String.format("K=%.1f w=%.2f halfLife=%s", kFactor, surfaceWeight,
+                    halfLifeDays > 0 ? String.format("%.0fd", halfLifeDays) : "off");
+        }
+    }
+
+    /**
+     * Scores of one candidate on the held-out matches.
+     */
+    public static final class Result {
+        private final Params params;
+        private final double logLoss;
+        private final double brier;
+        private final int scored;
+
+        Result(Params params, double logLoss, double brier, int scored) {
+            this.params = params;
+            this.logLoss = logLoss;
+            this.brier = brier;
+            this.scored = scored;
+        }
+
+        public Params getParams() { return params; }
+        public double getLogLoss() { return logLoss; }
+        public double getBrier() { return brier; }
+        public int getScored() { return scored; }
+
+        @Override
+        public String toString() {
+            return String.format("%-32s logLoss=%.5f brier=%.5f n=%d", params, logLoss, brier, scored);
+        }
+    }
+
+    // -------------------------
+    // Search
+    // -------------------------
+
+    public List<Result> grid(double[] kFactors, double[] surfaceWeights, double[] halfLives) {
+        List<Params> candidates = new ArrayList<>();
+        for (double k : kFactors)
+            for (double w : surfaceWeights)
+                for (double h : halfLives)
+                    candidates.add(new Params(k, w, h));
+        return evaluateAll(candidates);
+    }
+
+    /**
+     * Uniform random search; halfLife is drawn log-uniformly. Candidates depend only on the seed.
+     */
+    public List<Result> random(int n, long seed, double kMin, double kMax, double halfLifeMin, double halfLifeMax) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        List<Params> candidates = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double k = kMin + (kMax - kMin) * rng.nextDouble();
+            double w = rng.nextDouble();
+            double h = Math.exp(Math.log(halfLifeMin) + (Math.log(halfLifeMax) - Math.log(halfLifeMin)) * rng.nextDouble());
+            candidates.add(new Params(k, w, h));
+        }
+        return evaluateAll(candidates);
+    }
+
+    /**
+     * Evaluate candidates in parallel; results sorted by log-loss (best first).
+     */
+    public List<Result> evaluateAll(List<Params> candidates) {
+        return candidates.parallelStream()
+                .map(this::evaluate)
+                .sorted(Comparator.comparingDouble(Result::getLogLoss))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * One walk-forward rating pass over the whole store.
+     */
+    public Result evaluate(Params p) {
+        Ratings r = new Ratings(store.playerCount());
+        double logLoss = 0.0, brier = 0.0;
+        int scored = 0;
+
+        for (int i = 0; i < store.size(); i++) {
+            int w = store.winner(i), l = store.loser(i), s = store.surface(i), day = store.epochDay(i);
+            r.decayTo(w, day, p.halfLifeDays);
+            r.decayTo(l, day, p.halfLifeDays);
+
+            double expectedW = r.expected(w, l, s, p.surfaceWeight);
+            int y = store.year(i);
+            if (y >= testFromYear && y <= testToYear) {
+                double q = Math.min(1 - EPS, Math.max(EPS, expectedW));
+                logLoss -= Math.log(q);
+                brier += (1 - q) * (1 - q);
+                scored++;
+            }
+            r.update(w, l, s, expectedW, p.kFactor, p.surfaceWeight);
+        }
+        return new Result(p, scored > 0 ? logLoss / scored : Double.NaN, scored > 0 ? brier / scored : Double.NaN, scored);
+    }
+
+    /**
+     * Blended ratings after a full pass with the given parameters, e.g. for MatchProbability.elo.
+     * Unknown players get the initial rating. The returned function is read-only and safe to share.
+     */
+    public ToDoubleFunction<String> finalRatings(Params p, String surface) {
+        Ratings r = new Ratings(store.playerCount());
+        int lastDay = 0;
+        for (int i = 0; i < store.size(); i++) {
+            int w = store.winner(i), l = store.loser(i), s = store.surface(i), day = store.epochDay(i);
+            r.decayTo(w, day, p.halfLifeDays);
+            r.decayTo(l, day, p.halfLifeDays);
+            r.update(w, l, s, r.expected(w, l, s, p.surfaceWeight), p.kFactor, p.surfaceWeight);
+            lastDay = day;
+        }
+        int s = Surfaces.bucket(surface);
+        int today = lastDay;
+        return name -> {
+            int player = store.playerIndex(name);
+            if (player < 0) return INITIAL_RATING;
+            // decay for inactivity up to the last date in the store, without touching r
+            double f = p.halfLifeDays > 0 ? Math.pow(2.0, -(today - r.lastDay[player]) / p.halfLifeDays) : 1.0;
+            return INITIAL_RATING + (r.blended(player, s, p.surfaceWeight) - INITIAL_RATING) * f;
+        };
+    }
+
+    /**
+     * Per-evaluation mutable rating state; never shared between threads.
+     */
+    private static final class Ratings {
+        final double[] overall;
+        final double[] bySurface; // player * Surfaces.BUCKETS + surface
+        final int[] lastDay;      // NEVER = never played
+
+        Ratings(int players) {
+            overall = new double[players];
+            bySurface = new double[players * Surfaces.BUCKETS];
+            lastDay = new int[players];
+            Arrays.fill(overall, INITIAL_RATING);
+            Arrays.fill(bySurface, INITIAL_RATING);
+            Arrays.fill(lastDay, NEVER);
+        }
+
+        void decayTo(int player, int day, double halfLifeDays) {
+            int last = lastDay[player];
+            lastDay[player] = day;
+            if (halfLifeDays <= 0 || last == NEVER || day <= last) return;
+            double f = Math.pow(2.0, -(day - last) / halfLifeDays);
+            overall[player] = INITIAL_RATING + (overall[player] - INITIAL_RATING) * f;
+            int base = player * Surfaces.BUCKETS;
+            for (int s = 0; s < Surfaces.BUCKETS; s++) {
+                bySurface[base + s] = INITIAL_RATING + (bySurface[base + s] - INITIAL_RATING) * f;
+            }
+        }
+
+        double blended(int player, int surface, double w) {
+            return (1 - w) * overall[player] + w * bySurface[player * Surfaces.BUCKETS + surface];
+        }
+
+        double expected(int a, int b, int surface, double w) {
+            return MatchProbability.eloExpectancy(blended(a, surface, w), blended(b, surface, w));
+        }
+
+        void update(int w, int l, int surface, double expectedW, double k, double weight) {
+            double delta = k * (1.0 - expectedW);
+            overall[w] += delta;
+            overall[l] -= delta;
+            int ws = w * Surfaces.BUCKETS + surface, ls = l * Surfaces.BUCKETS + surface;
+            double surfaceExpected = MatchProbability.eloExpectancy(bySurface[ws], bySurface[ls]);
+            double surfaceDelta = k * (1.0 - surfaceExpected);
+            bySurface[ws] += surfaceDelta;
+            bySurface[ls] -= surfaceDelta;
+        }
+    }
+}
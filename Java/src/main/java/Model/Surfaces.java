@@ -0,0 +1,35 @@
+package Model;
+
+/**
+ * Surfaces - the surface buckets every per-surface statistic in Model is kept in.
+ *
+ * Usage:
+ *  - int bucket = Surfaces.bucket(m.getSurface()); arrays indexed by it have Surfaces.BUCKETS entries
+ *  - Surfaces.name(i) for i < Surfaces.KNOWN gives the surface name as it appears in the CSVs
+ *
+ * Notes:
+ *  - Buckets are Hard, Clay, Grass, Carpet and one "other" bucket (index KNOWN) for anything else, including
+ *    blank or missing surfaces. Names match case-insensitively.
+ */
+public final class Surfaces {
+
+    private static final String[] NAMES = {"Hard", "Clay", "Grass", "Carpet"};
+
+    public static final int KNOWN = NAMES.length;
+    public static final int BUCKETS = KNOWN + 1;
+
+    private Surfaces() {}
+
+    public static int bucket(String surface) {
+        if (surface != null) {
+            for (int i = 0; i < KNOWN; i++) {
+                if (NAMES[i].equalsIgnoreCase(surface)) return i;
+            }
+        }
+        return KNOWN;
+    }
+
+    public static String name(int bucket) {
+        return NAMES[bucket];
+    }
+}
@@ -0,0 +1,202 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * TournamentSimulator - Monte Carlo estimate of how far each player gets in a single-elimination draw.
+ *
+ * Usage:
+ *  - new TournamentSimulator(drawInBracketOrder, bestOf, surface, MatchProbability.elo(state::rating))
+ *  - simulate(10_000_000, seed) -> Result with reach probabilities per round and title odds
+ *
+ * Notes:
+ *  - draw is in bracket order (slot 0 plays slot 1, winner meets winner of 2 v 3, ...). Its size is padded
+ *    to the next power of two; null entries are byes. 28/56/96 draws work the same way.
+ *  - All pairwise probabilities are computed once into a flat n x n matrix before simulating.
+ *  - Simulations run on the common fork-join pool in fixed-size chunks. Each chunk draws from its own
+ *    SplittableRandom derived from (seed, chunk index) by chunkRandom, so results depend only on the seed,
+ *    never on the number of threads or scheduling.
+ */
+public class TournamentSimulator {
+
+    private static final int CHUNK = 1 << 15; // simulations per leaf task
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final List<String> players; // bracket slots, null = bye
+    private final int[] firstRound;     // slot index, or -1 for a bye
+    private final int size;             // power of two
+    private final int rounds;           // log2(size)
+    private final double[] winMatrix;   // winMatrix[i * size + j] = P(slot i beats slot j)
+
+    public TournamentSimulator(List<String> draw, int bestOf, String surface, MatchProbability scorer) {
+        if (draw.size() < 2) throw new IllegalArgumentException("draw needs at least two slots");
+        int n = Integer.highestOneBit(draw.size() - 1) << 1;
+        this.players = new ArrayList<>(draw);
+        while (players.size() < n) players.add(null);
+        this.size = n;
+        this.rounds = Integer.numberOfTrailingZeros(n);
+        this.firstRound = new int[n];
+        for (int i = 0; i < n; i++) firstRound[i] = players.get(i) == null ? -1 : i;
+
+        this.winMatrix = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                String a = players.get(i), b = players.get(j);
+                if (a == null || b == null) continue; // byes never reach the matrix lookup
+                double p = Math.min(1.0, Math.max(0.0, scorer.winProbability(a, b, surface, bestOf)));
+                winMatrix[i * n + j] = p;
+                winMatrix[j * n + i] = 1.0 - p;
+            }
+        }
+    }
+
+    /**
+     * Run the given number of bracket simulations in parallel.
+     */
+    public Result simulate(long simulations, long seed) {
+        if (simulations <= 0) throw new IllegalArgumentException("simulations must be > 0, got " + simulations);
+        long chunks = (simulations + CHUNK - 1) / CHUNK;
+        long[] reach = ForkJoinPool.commonPool().invoke(new SimulateTask(0, chunks, simulations, seed));
+        return new Result(Collections.unmodifiableList(players), rounds, reach, simulations);
+    }
+
+    /**
+     * Simulates chunks [fromChunk, toChunk); splits until one chunk is left.
+     */
+    @SuppressWarnings("serial") // ForkJoinTask is Serializable, but these tasks are never serialized
+    private final class SimulateTask extends RecursiveTask<long[]> {
+        private final long fromChunk, toChunk, simulations, seed;
+
+        SimulateTask(long fromChunk, long toChunk, long simulations, long seed) {
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.simulations = simulations;
+            this.seed = seed;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (toChunk - fromChunk <= 1) {
+                long start = fromChunk * CHUNK;
+                long count = Math.min(CHUNK, simulations - start);
+                return runChunk(count, chunkRandom(seed, fromChunk));
+            }
+            long mid = (fromChunk + toChunk) >>> 1;
+            SimulateTask left = new SimulateTask(fromChunk, mid, simulations, seed);
+            left.fork();
+            long[] right = new SimulateTask(mid, toChunk, simulations, seed).compute();
+            long[] merged = left.join();
+            for (int i = 0; i < merged.length; i++) merged[i] += right[i];
+            return merged;
+        }
+    }
+
+    /**
+     * Generator for one chunk. Seeding SplittableRandom with seed + k * GOLDEN_GAMMA would give chunk k + 1
+     * chunk k's stream shifted by one draw (that is the JDK's own gamma), so chunks a bracket's draw count
+     * apart would replay each other. Instead the seed is the chunk's SplitMix64 output of the root seed
+     * (mixed, so neighbouring chunks land far apart), and split() gives each chunk its own gamma as well.
+     */
+    static SplittableRandom chunkRandom(long seed, long chunk) {
+        return new SplittableRandom(mix64(seed + GOLDEN_GAMMA * (chunk + 1))).split();
+    }
+
+    // Stafford variant 13, the SplitMix64 output function
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * reach[r * size + slot] counts how often slot won r matches (r = rounds means champion).
+     */
+    private long[] runChunk(long count, SplittableRandom rng) {
+        long[] reach = new long[(rounds + 1) * size];
+        int[] alive = new int[size];
+        for (long sim = 0; sim < count; sim++) {
+            int remaining = size;
+            System.arraycopy(firstRound, 0, alive, 0, size);
+            for (int r = 1; r <= rounds; r++) {
+                remaining >>= 1;
+                for (int k = 0; k < remaining; k++) {
+                    int a = alive[2 * k], b = alive[2 * k + 1];
+                    int w;
+                    if (a < 0) w = b;
+                    else if (b < 0) w = a;
+                    else w = rng.nextDouble() < winMatrix[a * size + b] ? a : b;
+                    alive[k] = w;
+                    if (w >= 0) reach[r * size + w]++;
+                }
+            }
+        }
+        // everyone in the draw reaches round 0
+        for (int i = 0; i < size; i++) if (firstRound[i] >= 0) reach[i] = count;
+        return reach;
+    }
+
+    // -------------------------
+    // Result
+    // -------------------------
+
+    public static final class Result {
+        private final List<String> players;
+        private final int rounds;
+        private final long[] reach;
+        private final long simulations;
+
+        private Result(List<String> players, int rounds, long[] reach, long simulations) {
+            this.players = players;
+            this.rounds = rounds;
+            this.reach = reach;
+            this.simulations = simulations;
+        }
+
+        public List<String> getPlayers() { return players; }
+        public int getRounds() { return rounds; }
+        public long getSimulations() { return simulations; }
+
+        /**
+         * Probability that the player in the given bracket slot wins at least `wins` matches,
+         * i.e. reaches roundName(wins). wins = getRounds() is the title.
+         */
+        public double reachProbability(int slot, int wins) {
+            return (double) reach[wins * players.size() + slot] / simulations;
+        }
+
+        public double titleProbability(int slot) {
+            return reachProbability(slot, rounds);
+        }
+
+        /** "R128", ..., "QF", "SF", "F", "W" for wins = 0 .. getRounds(). */
+        public String roundName(int wins) {
+            int left = players.size() >> wins;
+            switch (left) {
+                case 1: return "W";
+                case 2: return "F";
+                case 4: return "SF";
+                case 8: return "QF";
+                default: return "R" + left;
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format("%-28s", "player"));
+            for (int r = 1; r <= rounds; r++) sb.append(String.format("%8s", roundName(r)));
+            sb.append('\n');
+            for (int slot = 0; slot < players.size(); slot++) {
+                if (players.get(slot) == null) continue;
+                sb.append(String.format("%-28s", players.get(slot)));
+                for (int r = 1; r <= rounds; r++) sb.append(String.format("%8.4f", reachProbability(slot, r)));
+                sb.append('\n');
+            }
+            return sb.toString();
+        }
+    }
+}
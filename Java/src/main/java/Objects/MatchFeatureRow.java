@@ -0,0 +1,216 @@
+package Objects;
+
+/**
+ * MatchFeatureRow - one computed feature row; the values behind a MatchFeatures.
+ */
+public final class MatchFeatureRow implements MatchFeatures {
+
+    // Basic match info
+    private String player1;      // Name of player 1
+    private String player2;      // Name of player 2
+    private String surface;      // Court surface (e.g. Hard, Clay, Grass)
+    private String round;        // Tournament round (e.g. QF, SF, F)
+
+    // Player stats
+    private double player1Rank;       // Current ATP rank of player 1
+    private double player2Rank;       // Current ATP rank of player 2
+    private double player1Elo;        // Current Elo rating of player 1
+    private double player2Elo;        // Current Elo rating of player 2
+
+    // Head-to-head stats
+    private int h2hWinsP1;            // H2H wins for player 1 vs player 2
+    private int h2hWinsP2;            // H2H wins for player 2 vs player 1
+    private double h2hWinRateP1;      // Win rate for player 1 in H2H
+    private double h2hWinRateP2;      // Win rate for player 2 in H2H
+
+    // Form stats
+    private int formWinsP1;           // Wins in last N matches for player 1
+    private int formLossesP1;         // Losses in last N matches for player 1
+    private double formWinRateP1;     // Win rate in last N matches for player 1
+
+    private int formWinsP2;           // Wins in last N matches for player 2
+    private int formLossesP2;         // Losses in last N matches for player 2
+    private double formWinRateP2;     // Win rate in last N matches for player 2
+
+    // Odds
+    private double oddsP1;            // Betting odds for player 1
+    private double oddsP2;            // Betting odds for player 2
+
+    // Rolling averages (last 5 matches)
+    private double winnerRollingWinPctLast5;
+    private double winnerRollingAceAvgLast5;
+    private double winnerRollingDFAvgLast5;
+    private double winnerRollingBPConversionLast5;
+
+    private double loserRollingWinPctLast5;
+    private double loserRollingAceAvgLast5;
+    private double loserRollingDFAvgLast5;
+    private double loserRollingBPConversionLast5;
+
+    // Head-to-head win rates
+    private double winnerH2HWinPct;
+    private double loserH2HWinPct;
+
+    // Surface-specific performance
+    private double winnerSurfaceWinPct;
+    private double loserSurfaceWinPct;
+    private double winnerSurfaceAceRate;
+    private double loserSurfaceAceRate;
+
+    // Exponentially time-decayed rates (half-lives in DecayedPlayerStats)
+    private double decayedWinRateP1;
+    private double decayedWinRateP2;
+    private double decayedAceRateP1;         // aces per service point
+    private double decayedAceRateP2;
+    private double decayedDfRateP1;          // double faults per service point
+    private double decayedDfRateP2;
+    private double decayedBpSavedP1;         // break points saved / faced
+    private double decayedBpSavedP2;
+    private double decayedSurfaceWinRateP1;
+    private double decayedSurfaceWinRateP2;
+
+    // Serve-point Markov model (ServeMarkovModel)
+    private double servePointWinP1;          // P(player1 wins a point on own serve) against player2
+    private double servePointWinP2;
+    private double markovWinProbP1;          // P(player1 wins the match) from the two values above and best_of
+
+    // Target label
+    private int winner;               // 1 if player1 wins, 0 otherwise, -1 if not played yet
+
+    /**
+     * Constructor for MatchFeatureRow.
+     */
+    public MatchFeatureRow(String player1, String player2, String surface, String round,
+                         double player1Rank, double player2Rank,
+                         double player1Elo, double player2Elo,
+                         int h2hWinsP1, int h2hWinsP2, double h2hWinRateP1, double h2hWinRateP2,
+                         int formWinsP1, int formLossesP1, double formWinRateP1,
+                         int formWinsP2, int formLossesP2, double formWinRateP2,
+                         double oddsP1, double oddsP2, double winnerRollingWinPctLast5,
+                         double winnerRollingAceAvgLast5,
+                         double winnerRollingDFAvgLast5,
+                         double winnerRollingBPConversionLast5,
+                         double loserRollingWinPctLast5,
+                         double loserRollingAceAvgLast5,
+                         double loserRollingDFAvgLast5,
+                         double loserRollingBPConversionLast5,
+                         double winnerH2HWinPct,
+                         double loserH2HWinPct,
+                         double winnerSurfaceWinPct,
+                         double loserSurfaceWinPct,
+                         double winnerSurfaceAceRate,
+                         double loserSurfaceAceRate,
+                         double decayedWinRateP1, double decayedWinRateP2,
+                         double decayedAceRateP1, double decayedAceRateP2,
+                         double decayedDfRateP1, double decayedDfRateP2,
+                         double decayedBpSavedP1, double decayedBpSavedP2,
+                         double decayedSurfaceWinRateP1, double decayedSurfaceWinRateP2,
+                         double servePointWinP1, double servePointWinP2, double markovWinProbP1, int winner) {
+        this.player1 = player1;
+        this.player2 = player2;
+        this.surface = surface;
+        this.round = round;
+        this.player1Rank = player1Rank;
+        this.player2Rank = player2Rank;
+        this.player1Elo = player1Elo;
+        this.player2Elo = player2Elo;
+        this.h2hWinsP1 = h2hWinsP1;
+        this.h2hWinsP2 = h2hWinsP2;
+        this.h2hWinRateP1 = h2hWinRateP1;
+        this.h2hWinRateP2 = h2hWinRateP2;
+        this.formWinsP1 = formWinsP1;
+        this.formLossesP1 = formLossesP1;
+        this.formWinRateP1 = formWinRateP1;
+        this.formWinsP2 = formWinsP2;
+        this.formLossesP2 = formLossesP2;
+        this.formWinRateP2 = formWinRateP2;
+        this.oddsP1 = oddsP1;
+        this.oddsP2 = oddsP2;
+        this.winnerRollingWinPctLast5 = winnerRollingWinPctLast5;
+        this.winnerRollingAceAvgLast5 = winnerRollingAceAvgLast5;
+        this.winnerRollingDFAvgLast5 = winnerRollingDFAvgLast5;
+        this.winnerRollingBPConversionLast5 = winnerRollingBPConversionLast5;
+
+        this.loserRollingWinPctLast5 = loserRollingWinPctLast5;
+        this.loserRollingAceAvgLast5 = loserRollingAceAvgLast5;
+        this.loserRollingDFAvgLast5 = loserRollingDFAvgLast5;
+        this.loserRollingBPConversionLast5 = loserRollingBPConversionLast5;
+
+        this.winnerH2HWinPct = winnerH2HWinPct;
+        this.loserH2HWinPct = loserH2HWinPct;
+
+        this.winnerSurfaceWinPct = winnerSurfaceWinPct;
+        this.loserSurfaceWinPct = loserSurfaceWinPct;
+        this.winnerSurfaceAceRate = winnerSurfaceAceRate;
+        this.loserSurfaceAceRate = loserSurfaceAceRate;
+        this.decayedWinRateP1 = decayedWinRateP1;
+        this.decayedWinRateP2 = decayedWinRateP2;
+        this.decayedAceRateP1 = decayedAceRateP1;
+        this.decayedAceRateP2 = decayedAceRateP2;
+        this.decayedDfRateP1 = decayedDfRateP1;
+        this.decayedDfRateP2 = decayedDfRateP2;
+        this.decayedBpSavedP1 = decayedBpSavedP1;
+        this.decayedBpSavedP2 = decayedBpSavedP2;
+        this.decayedSurfaceWinRateP1 = decayedSurfaceWinRateP1;
+        this.decayedSurfaceWinRateP2 = decayedSurfaceWinRateP2;
+        this.servePointWinP1 = servePointWinP1;
+        this.servePointWinP2 = servePointWinP2;
+        this.markovWinProbP1 = markovWinProbP1;
+        this.winner = winner;
+    }
+
+    // Getters
+    @Override public String getPlayer1() { return player1; }
+    @Override public String getPlayer2() { return player2; }
+    @Override public String getSurface() { return surface; }
+    @Override public String getRound() { return round; }
+    @Override public double getPlayer1Rank() { return player1Rank; }
+    @Override public double getPlayer2Rank() { return player2Rank; }
+    @Override public double getPlayer1Elo() { return player1Elo; }
+    @Override public double getPlayer2Elo() { return player2Elo; }
+    @Override public int getH2hWinsP1() { return h2hWinsP1; }
+    @Override public int getH2hWinsP2() { return h2hWinsP2; }
+    @Override public double getH2hWinRateP1() { return h2hWinRateP1; }
+    @Override public double getH2hWinRateP2() { return h2hWinRateP2; }
+    @Override public int getFormWinsP1() { return formWinsP1; }
+    @Override public int getFormLossesP1() { return formLossesP1; }
+    @Override public double getFormWinRateP1() { return formWinRateP1; }
+    @Override public int getFormWinsP2() { return formWinsP2; }
+    @Override public int getFormLossesP2() { return formLossesP2; }
+    @Override public double getFormWinRateP2() { return formWinRateP2; }
+    @Override public double getOddsP1() { return oddsP1; }
+    @Override public double getOddsP2() { return oddsP2; }
+    @Override public double getWinnerRollingWinPctLast5() { return winnerRollingWinPctLast5; }
+    @Override public double getWinnerRollingAceAvgLast5() { return winnerRollingAceAvgLast5; }
+    @Override public double getWinnerRollingDFAvgLast5() { return winnerRollingDFAvgLast5; }
+    @Override public double getWinnerRollingBPConversionLast5() { return winnerRollingBPConversionLast5; }
+
+    @Override public double getLoserRollingWinPctLast5() { return loserRollingWinPctLast5; }
+    @Override public double getLoserRollingAceAvgLast5() { return loserRollingAceAvgLast5; }
+    @Override public double getLoserRollingDFAvgLast5() { return loserRollingDFAvgLast5; }
+    @Override public double getLoserRollingBPConversionLast5() { return loserRollingBPConversionLast5; }
+
+    @Override public double getWinnerH2HWinPct() { return winnerH2HWinPct; }
+    @Override public double getLoserH2HWinPct() { return loserH2HWinPct; }
+
+    @Override public double getWinnerSurfaceWinPct() { return winnerSurfaceWinPct; }
+    @Override public double getLoserSurfaceWinPct() { return loserSurfaceWinPct; }
+    @Override public double getWinnerSurfaceAceRate() { return winnerSurfaceAceRate; }
+    @Override public double getLoserSurfaceAceRate() { return loserSurfaceAceRate; }
+
+    @Override public double getDecayedWinRateP1() { return decayedWinRateP1; }
+    @Override public double getDecayedWinRateP2() { return decayedWinRateP2; }
+    @Override public double getDecayedAceRateP1() { return decayedAceRateP1; }
+    @Override public double getDecayedAceRateP2() { return decayedAceRateP2; }
+    @Override public double getDecayedDfRateP1() { return decayedDfRateP1; }
+    @Override public double getDecayedDfRateP2() { return decayedDfRateP2; }
+    @Override public double getDecayedBpSavedP1() { return decayedBpSavedP1; }
+    @Override public double getDecayedBpSavedP2() { return decayedBpSavedP2; }
+    @Override public double getDecayedSurfaceWinRateP1() { return decayedSurfaceWinRateP1; }
+    @Override public double getDecayedSurfaceWinRateP2() { return decayedSurfaceWinRateP2; }
+
+    @Override public double getServePointWinP1() { return servePointWinP1; }
+    @Override public double getServePointWinP2() { return servePointWinP2; }
+    @Override public double getMarkovWinProbP1() { return markovWinProbP1; }
+    @Override public int getWinner() { return winner; }
+}
@@ -0,0 +1,68 @@
+package Objects;
+
+/**
+ * Read-only view of a MatchFeatures with player1 and player2 swapped (see MatchFeatures.mirrored).
+ */
+final class MirroredMatchFeatures implements MatchFeatures {
+    private final MatchFeatures base;
+
+    MirroredMatchFeatures(MatchFeatures base) {
+        this.base = base;
+    }
+
+    @Override public MatchFeatures mirrored() { return base; }
+
+    @Override public String getPlayer1() { return base.getPlayer2(); }
+    @Override public String getPlayer2() { return base.getPlayer1(); }
+    @Override public String getSurface() { return base.getSurface(); }
+    @Override public String getRound() { return base.getRound(); }
+    @Override public double getPlayer1Rank() { return base.getPlayer2Rank(); }
+    @Override public double getPlayer2Rank() { return base.getPlayer1Rank(); }
+    @Override public double getPlayer1Elo() { return base.getPlayer2Elo(); }
+    @Override public double getPlayer2Elo() { return base.getPlayer1Elo(); }
+    @Override public int getH2hWinsP1() { return base.getH2hWinsP2(); }
+    @Override public int getH2hWinsP2() { return base.getH2hWinsP1(); }
+    @Override public double getH2hWinRateP1() { return base.getH2hWinRateP2(); }
+    @Override public double getH2hWinRateP2() { return base.getH2hWinRateP1(); }
+    @Override public int getFormWinsP1() { return base.getFormWinsP2(); }
+    @Override public int getFormLossesP1() { return base.getFormLossesP2(); }
+    @Override public double getFormWinRateP1() { return base.getFormWinRateP2(); }
+    @Override public int getFormWinsP2() { return base.getFormWinsP1(); }
+    @Override public int getFormLossesP2() { return base.getFormLossesP1(); }
+    @Override public double getFormWinRateP2() { return base.getFormWinRateP1(); }
+    @Override public double getOddsP1() { return base.getOddsP2(); }
+    @Override public double getOddsP2() { return base.getOddsP1(); }
+    @Override public double getWinnerRollingWinPctLast5() { return base.getLoserRollingWinPctLast5(); }
+    @Override public double getWinnerRollingAceAvgLast5() { return base.getLoserRollingAceAvgLast5(); }
+    @Override public double getWinnerRollingDFAvgLast5() { return base.getLoserRollingDFAvgLast5(); }
+    @Override public double getWinnerRollingBPConversionLast5() { return base.getLoserRollingBPConversionLast5(); }
+
+    @Override public double getLoserRollingWinPctLast5() { return base.getWinnerRollingWinPctLast5(); }
+    @Override public double getLoserRollingAceAvgLast5() { return base.getWinnerRollingAceAvgLast5(); }
+    @Override public double getLoserRollingDFAvgLast5() { return base.getWinnerRollingDFAvgLast5(); }
+    @Override public double getLoserRollingBPConversionLast5() { return base.getWinnerRollingBPConversionLast5(); }
+
+    @Override public double getWinnerH2HWinPct() { return base.getLoserH2HWinPct(); }
+    @Override public double getLoserH2HWinPct() { return base.getWinnerH2HWinPct(); }
+
+    @Override public double getWinnerSurfaceWinPct() { return base.getLoserSurfaceWinPct(); }
+    @Override public double getLoserSurfaceWinPct() { return base.getWinnerSurfaceWinPct(); }
+    @Override public double getWinnerSurfaceAceRate() { return base.getLoserSurfaceAceRate(); }
+    @Override public double getLoserSurfaceAceRate() { return base.getWinnerSurfaceAceRate(); }
+
+    @Override public double getDecayedWinRateP1() { return base.getDecayedWinRateP2(); }
+    @Override public double getDecayedWinRateP2() { return base.getDecayedWinRateP1(); }
+    @Override public double getDecayedAceRateP1() { return base.getDecayedAceRateP2(); }
+    @Override public double getDecayedAceRateP2() { return base.getDecayedAceRateP1(); }
+    @Override public double getDecayedDfRateP1() { return base.getDecayedDfRateP2(); }
+    @Override public double getDecayedDfRateP2() { return base.getDecayedDfRateP1(); }
+    @Override public double getDecayedBpSavedP1() { return base.getDecayedBpSavedP2(); }
+    @Override public double getDecayedBpSavedP2() { return base.getDecayedBpSavedP1(); }
+    @Override public double getDecayedSurfaceWinRateP1() { return base.getDecayedSurfaceWinRateP2(); }
+    @Override public double getDecayedSurfaceWinRateP2() { return base.getDecayedSurfaceWinRateP1(); }
+
+    @Override public double getServePointWinP1() { return base.getServePointWinP2(); }
+    @Override public double getServePointWinP2() { return base.getServePointWinP1(); }
+    @Override public double getMarkovWinProbP1() { return 1.0 - base.getMarkovWinProbP1(); }
+    @Override public int getWinner() { return base.getWinner() < 0 ? base.getWinner() : 1 - base.getWinner(); }
+}
@@ -0,0 +1,219 @@
+package Utils;
+
+import Objects.MatchFeatureRow;
+import Objects.MatchFeatures;
+import Objects.ModelData;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of ModelData and MatchFeatures lists for the pipeline stage cache.
+ *
+ * Format: list size (int) followed by the records; nullable values are prefixed with a presence byte.
+ * Bump FORMAT_VERSION whenever a field is added, removed or reordered - it is part of every cache key.
+ */
+public class BinaryCodec {
+
+    public static final int FORMAT_VERSION = 2;
+
+    // -------------------------
+    // ModelData
+    // -------------------------
+
+    public static void writeModelData(DataOutputStream out, List<ModelData> matches) throws IOException {
+        out.writeInt(matches.size());
+        for (ModelData m : matches) {
+            writeString(out, m.getTourney_id());
+            writeString(out, m.getTourney_name());
+            writeString(out, m.getSurface());
+            out.writeInt(m.getDraw_size());
+            writeString(out, m.getTourney_level());
+            out.writeInt(m.getTourney_date());
+            out.writeInt(m.getMatch_num());
+
+            out.writeInt(m.getWinner_id());
+            writeString(out, m.getWinner_seed());
+            writeString(out, m.getWinner_entry());
+            writeString(out, m.getWinner_name());
+            writeString(out, m.getWinner_hand());
+            writeInteger(out, m.getWinner_ht());
+            writeString(out, m.getWinner_ioc());
+            writeDouble(out, m.getWinner_age());
+            writeInteger(out, m.getWinner_rank());
+            writeInteger(out, m.getWinner_rank_points());
+
+            out.writeInt(m.getLoser_id());
+            writeString(out, m.getLoser_seed());
+            writeString(out, m.getLoser_entry());
+            writeString(out, m.getLoser_name());
+            writeString(out, m.getLoser_hand());
+            writeInteger(out, m.getLoser_ht());
+            writeString(out, m.getLoser_ioc());
+            writeDouble(out, m.getLoser_age());
+            writeInteger(out, m.getLoser_rank());
+            writeInteger(out, m.getLoser_rank_points());
+
+            writeString(out, m.getScore());
+            out.writeInt(m.getBest_of());
+            writeString(out, m.getRound());
+            writeInteger(out, m.getMinutes());
+
+            writeInteger(out, m.getW_ace());
+            writeInteger(out, m.getW_df());
+            writeInteger(out, m.getW_svpt());
+            writeInteger(out, m.getW_1stIn());
+            writeInteger(out, m.getW_1stWon());
+            writeInteger(out, m.getW_2ndWon());
+            writeInteger(out, m.getW_SvGms());
+            writeInteger(out, m.getW_bpSaved());
+            writeInteger(out, m.getW_bpFaced());
+
+            writeInteger(out, m.getL_ace());
+            writeInteger(out, m.getL_df());
+            writeInteger(out, m.getL_svpt());
+            writeInteger(out, m.getL_1stIn());
+            writeInteger(out, m.getL_1stWon());
+            writeInteger(out, m.getL_2ndWon());
+            writeInteger(out, m.getL_SvGms());
+            writeInteger(out, m.getL_bpSaved());
+            writeInteger(out, m.getL_bpFaced());
+        }
+    }
+
+    public static List<ModelData> readModelData(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<ModelData> matches = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            matches.add(new ModelData(
+                    readString(in), readString(in), readString(in), in.readInt(),
+                    readString(in), in.readInt(), in.readInt(),
+                    in.readInt(), readString(in), readString(in), readString(in), readString(in),
+                    readInteger(in), readString(in), readDouble(in), readInteger(in), readInteger(in),
+                    in.readInt(), readString(in), readString(in), readString(in), readString(in),
+                    readInteger(in), readString(in), readDouble(in), readInteger(in), readInteger(in),
+                    readString(in), in.readInt(), readString(in), readInteger(in),
+                    readInteger(in), readInteger(in), readInteger(in), readInteger(in), readInteger(in),
+                    readInteger(in), readInteger(in), readInteger(in), readInteger(in),
+                    readInteger(in), readInteger(in), readInteger(in), readInteger(in), readInteger(in),
+                    readInteger(in), readInteger(in), readInteger(in), readInteger(in)));
+        }
+        return matches;
+    }
+
+    // -------------------------
+    // MatchFeatures
+    // -------------------------
+
+    public static void writeMatchFeatures(DataOutputStream out, List<MatchFeatures> rows) throws IOException {
+        out.writeInt(rows.size());
+        for (MatchFeatures f : rows) {
+            writeString(out, f.getPlayer1());
+            writeString(out, f.getPlayer2());
+            writeString(out, f.getSurface());
+            writeString(out, f.getRound());
+            out.writeDouble(f.getPlayer1Rank());
+            out.writeDouble(f.getPlayer2Rank());
+            out.writeDouble(f.getPlayer1Elo());
+            out.writeDouble(f.getPlayer2Elo());
+            out.writeInt(f.getH2hWinsP1());
+            out.writeInt(f.getH2hWinsP2());
+            out.writeDouble(f.getH2hWinRateP1());
+            out.writeDouble(f.getH2hWinRateP2());
+            out.writeInt(f.getFormWinsP1());
+            out.writeInt(f.getFormLossesP1());
+            out.writeDouble(f.getFormWinRateP1());
+            out.writeInt(f.getFormWinsP2());
+            out.writeInt(f.getFormLossesP2());
+            out.writeDouble(f.getFormWinRateP2());
+            out.writeDouble(f.getOddsP1());
+            out.writeDouble(f.getOddsP2());
+            out.writeDouble(f.getWinnerRollingWinPctLast5());
+            out.writeDouble(f.getWinnerRollingAceAvgLast5());
+            out.writeDouble(f.getWinnerRollingDFAvgLast5());
+            out.writeDouble(f.getWinnerRollingBPConversionLast5());
+            out.writeDouble(f.getLoserRollingWinPctLast5());
+            out.writeDouble(f.getLoserRollingAceAvgLast5());
+            out.writeDouble(f.getLoserRollingDFAvgLast5());
+            out.writeDouble(f.getLoserRollingBPConversionLast5());
+            out.writeDouble(f.getWinnerH2HWinPct());
+            out.writeDouble(f.getLoserH2HWinPct());
+            out.writeDouble(f.getWinnerSurfaceWinPct());
+            out.writeDouble(f.getLoserSurfaceWinPct());
+            out.writeDouble(f.getWinnerSurfaceAceRate());
+            out.writeDouble(f.getLoserSurfaceAceRate());
+            out.writeDouble(f.getDecayedWinRateP1());
+            out.writeDouble(f.getDecayedWinRateP2());
+            out.writeDouble(f.getDecayedAceRateP1());
+            out.writeDouble(f.getDecayedAceRateP2());
+            out.writeDouble(f.getDecayedDfRateP1());
+            out.writeDouble(f.getDecayedDfRateP2());
+            out.writeDouble(f.getDecayedBpSavedP1());
+            out.writeDouble(f.getDecayedBpSavedP2());
+            out.writeDouble(f.getDecayedSurfaceWinRateP1());
+            out.writeDouble(f.getDecayedSurfaceWinRateP2());
+            out.writeDouble(f.getServePointWinP1());
+            out.writeDouble(f.getServePointWinP2());
+            out.writeDouble(f.getMarkovWinProbP1());
+            out.writeInt(f.getWinner());
+        }
+    }
+
+    public static List<MatchFeatures> readMatchFeatures(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<MatchFeatures> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            rows.add(new MatchFeatureRow(
+                    readString(in), readString(in), readString(in), readString(in),
+                    in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readInt(), in.readInt(), in.readDouble(), in.readDouble(),
+                    in.readInt(), in.readInt(), in.readDouble(),
+                    in.readInt(), in.readInt(), in.readDouble(),
+                    in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readInt()));
+        }
+        return rows;
+    }
+
+    // -------------------------
+    // Nullable primitives
+    // -------------------------
+
+    private static void writeString(DataOutputStream out, String v) throws IOException {
+        out.writeBoolean(v != null);
+        if (v != null) out.writeUTF(v);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer v) throws IOException {
+        out.writeBoolean(v != null);
+        if (v != null) out.writeInt(v);
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeDouble(DataOutputStream out, Double v) throws IOException {
+        out.writeBoolean(v != null);
+        if (v != null) out.writeDouble(v);
+    }
+
+    private static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+}
@@ -3,9 +3,16 @@ package Utils;
 import Objects.MatchFeatures;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 
 /**
@@ -14,67 +21,124 @@ import java.util.List;
 public class CSVWriterXGBoost {
 
     public static void writeToCSV(List<MatchFeatures> matches) {
-        String filePath = "TennisPredictor3.0/Data/train_data.csv";
+        writeToCSV(matches, "TennisPredictor3.0/Data/train_data.csv");
+    }
 
-        try (FileWriter writer = new FileWriter(filePath)) {
+    public static void writeToCSV(List<MatchFeatures> matches, String filePath) {
+        try {
+            writeCSV(matches, Paths.get(filePath));
+            System.out.println("CSV successfully written to: " + filePath);
+        } catch (IOException e) {
+            System.err.println("Error writing CSV: " + e.getMessage());
+        }
+    }
 
-            // Write header (expanded)
-            writer.append("player1,player2,surface,round,player1Rank,player2Rank,player1Elo,player2Elo,")
-                    .append("h2hWinsP1,h2hWinsP2,h2hWinRateP1,h2hWinRateP2,")
-                    .append("formWinsP1,formLossesP1,formWinRateP1,")
-                    .append("formWinsP2,formLossesP2,formWinRateP2,")
-                    .append("oddsP1,oddsP2,")
-                    .append("winnerRollingWinPctLast5,winnerRollingAceAvgLast5,winnerRollingDFAvgLast5,winnerRollingBPConversionLast5,")
-                    .append("loserRollingWinPctLast5,loserRollingAceAvgLast5,loserRollingDFAvgLast5,loserRollingBPConversionLast5,")
-                    .append("winnerH2HWinPct,loserH2HWinPct,")
-                    .append("winnerSurfaceWinPct,loserSurfaceWinPct,winnerSurfaceAceRate,loserSurfaceAceRate,")
-                    .append("winner\n");
+    /**
+     * Write a complete export, replacing filePath only once every row is on disk: rows go to filePath.tmp,
+     * which is then moved over filePath (atomically where the file system supports it). If anything fails,
+     * filePath is left as it was and the exception is thrown.
+     */
+    public static void writeCSV(List<MatchFeatures> matches, Path filePath) throws IOException {
+        Path target = filePath.toAbsolutePath();
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, Charset.defaultCharset())) {
+                writeHeader(writer);
+                for (MatchFeatures mf : matches) {
+                    writeRow(writer, mf);
+                }
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
 
-            // Write data
+    /**
+     * Append rows to an existing export (e.g. from the live season watcher); writes the header first if the
+     * file does not exist yet or is empty.
+     */
+    public static void appendToCSV(List<MatchFeatures> matches, String filePath) throws IOException {
+        File file = new File(filePath);
+        boolean needsHeader = !file.isFile() || file.length() == 0;
+        try (Writer writer = new BufferedWriter(new FileWriter(file, true))) {
+            if (needsHeader) writeHeader(writer);
             for (MatchFeatures mf : matches) {
-                writer.append(escape(mf.getPlayer1())).append(",")
-                        .append(escape(mf.getPlayer2())).append(",")
-                        .append(escape(mf.getSurface())).append(",")
-                        .append(escape(mf.getRound())).append(",")
-                        .append(String.valueOf(mf.getPlayer1Rank())).append(",")
-                        .append(String.valueOf(mf.getPlayer2Rank())).append(",")
-                        .append(String.valueOf(mf.getPlayer1Elo())).append(",")
-                        .append(String.valueOf(mf.getPlayer2Elo())).append(",")
-                        .append(String.valueOf(mf.getH2hWinsP1())).append(",")
-                        .append(String.valueOf(mf.getH2hWinsP2())).append(",")
-                        .append(String.valueOf(mf.getH2hWinRateP1())).append(",")
-                        .append(String.valueOf(mf.getH2hWinRateP2())).append(",")
-                        .append(String.valueOf(mf.getFormWinsP1())).append(",")
-                        .append(String.valueOf(mf.getFormLossesP1())).append(",")
-                        .append(String.valueOf(mf.getFormWinRateP1())).append(",")
-                        .append(String.valueOf(mf.getFormWinsP2())).append(",")
-                        .append(String.valueOf(mf.getFormLossesP2())).append(",")
-                        .append(String.valueOf(mf.getFormWinRateP2())).append(",")
-                        .append(String.valueOf(mf.getOddsP1())).append(",")
-                        .append(String.valueOf(mf.getOddsP2())).append(",")
-                        .append(String.valueOf(mf.getWinnerRollingWinPctLast5())).append(",")
-                        .append(String.valueOf(mf.getWinnerRollingAceAvgLast5())).append(",")
-                        .append(String.valueOf(mf.getWinnerRollingDFAvgLast5())).append(",")
-                        .append(String.valueOf(mf.getWinnerRollingBPConversionLast5())).append(",")
-                        .append(String.valueOf(mf.getLoserRollingWinPctLast5())).append(",")
-                        .append(String.valueOf(mf.getLoserRollingAceAvgLast5())).append(",")
-                        .append(String.valueOf(mf.getLoserRollingDFAvgLast5())).append(",")
-                        .append(String.valueOf(mf.getLoserRollingBPConversionLast5())).append(",")
-                        .append(String.valueOf(mf.getWinnerH2HWinPct())).append(",")
-                        .append(String.valueOf(mf.getLoserH2HWinPct())).append(",")
-                        .append(String.valueOf(mf.getWinnerSurfaceWinPct())).append(",")
-                        .append(String.valueOf(mf.getLoserSurfaceWinPct())).append(",")
-                        .append(String.valueOf(mf.getWinnerSurfaceAceRate())).append(",")
-                        .append(String.valueOf(mf.getLoserSurfaceAceRate())).append(",")
-                        .append(String.valueOf(mf.getWinner()))
-                        .append("\n");
+                writeRow(writer, mf);
             }
+        }
+    }
 
-            System.out.println("CSV successfully written to: " + filePath);
+    private static void writeHeader(Writer writer) throws IOException {
+        writer.append("player1,player2,surface,round,player1Rank,player2Rank,player1Elo,player2Elo,")
+                .append("h2hWinsP1,h2hWinsP2,h2hWinRateP1,h2hWinRateP2,")
+                .append("formWinsP1,formLossesP1,formWinRateP1,")
+                .append("formWinsP2,formLossesP2,formWinRateP2,")
+                .append("oddsP1,oddsP2,")
+                .append("rollingWinPctLast5P1,rollingAceAvgLast5P1,rollingDFAvgLast5P1,rollingBPConversionLast5P1,")
+                .append("rollingWinPctLast5P2,rollingAceAvgLast5P2,rollingDFAvgLast5P2,rollingBPConversionLast5P2,")
+                .append("h2hWinPctP1,h2hWinPctP2,")
+                .append("surfaceWinPctP1,surfaceWinPctP2,surfaceAceRateP1,surfaceAceRateP2,")
+                .append("decayedWinRateP1,decayedWinRateP2,decayedAceRateP1,decayedAceRateP2,decayedDfRateP1,decayedDfRateP2,")
+                .append("decayedBpSavedP1,decayedBpSavedP2,decayedSurfaceWinRateP1,decayedSurfaceWinRateP2,")
+                .append("servePointWinP1,servePointWinP2,markovWinProbP1,")
+                .append("winner\n");
+    }
 
-        } catch (IOException e) {
-            System.err.println("Error writing CSV: " + e.getMessage());
-        }
+    private static void writeRow(Writer writer, MatchFeatures mf) throws IOException {
+        writer.append(escape(mf.getPlayer1())).append(",")
+                .append(escape(mf.getPlayer2())).append(",")
+                .append(escape(mf.getSurface())).append(",")
+                .append(escape(mf.getRound())).append(",")
+                .append(String.valueOf(mf.getPlayer1Rank())).append(",")
+                .append(String.valueOf(mf.getPlayer2Rank())).append(",")
+                .append(String.valueOf(mf.getPlayer1Elo())).append(",")
+                .append(String.valueOf(mf.getPlayer2Elo())).append(",")
+                .append(String.valueOf(mf.getH2hWinsP1())).append(",")
+                .append(String.valueOf(mf.getH2hWinsP2())).append(",")
+                .append(String.valueOf(mf.getH2hWinRateP1())).append(",")
+                .append(String.valueOf(mf.getH2hWinRateP2())).append(",")
+                .append(String.valueOf(mf.getFormWinsP1())).append(",")
+                .append(String.valueOf(mf.getFormLossesP1())).append(",")
+                .append(String.valueOf(mf.getFormWinRateP1())).append(",")
+                .append(String.valueOf(mf.getFormWinsP2())).append(",")
+                .append(String.valueOf(mf.getFormLossesP2())).append(",")
+                .append(String.valueOf(mf.getFormWinRateP2())).append(",")
+                .append(String.valueOf(mf.getOddsP1())).append(",")
+                .append(String.valueOf(mf.getOddsP2())).append(",")
+                .append(String.valueOf(mf.getWinnerRollingWinPctLast5())).append(",")
+                .append(String.valueOf(mf.getWinnerRollingAceAvgLast5())).append(",")
+                .append(String.valueOf(mf.getWinnerRollingDFAvgLast5())).append(",")
+                .append(String.valueOf(mf.getWinnerRollingBPConversionLast5())).append(",")
+                .append(String.valueOf(mf.getLoserRollingWinPctLast5())).append(",")
+                .append(String.valueOf(mf.getLoserRollingAceAvgLast5())).append(",")
+                .append(String.valueOf(mf.getLoserRollingDFAvgLast5())).append(",")
+                .append(String.valueOf(mf.getLoserRollingBPConversionLast5())).append(",")
+                .append(String.valueOf(mf.getWinnerH2HWinPct())).append(",")
+                .append(String.valueOf(mf.getLoserH2HWinPct())).append(",")
+                .append(String.valueOf(mf.getWinnerSurfaceWinPct())).append(",")
+                .append(String.valueOf(mf.getLoserSurfaceWinPct())).append(",")
+                .append(String.valueOf(mf.getWinnerSurfaceAceRate())).append(",")
+                .append(String.valueOf(mf.getLoserSurfaceAceRate())).append(",")
+                .append(String.valueOf(mf.getDecayedWinRateP1())).append(",")
+                .append(String.valueOf(mf.getDecayedWinRateP2())).append(",")
+                .append(String.valueOf(mf.getDecayedAceRateP1())).append(",")
+                .append(String.valueOf(mf.getDecayedAceRateP2())).append(",")
+                .append(String.valueOf(mf.getDecayedDfRateP1())).append(",")
+                .append(String.valueOf(mf.getDecayedDfRateP2())).append(",")
+                .append(String.valueOf(mf.getDecayedBpSavedP1())).append(",")
+                .append(String.valueOf(mf.getDecayedBpSavedP2())).append(",")
+                .append(String.valueOf(mf.getDecayedSurfaceWinRateP1())).append(",")
+                .append(String.valueOf(mf.getDecayedSurfaceWinRateP2())).append(",")
+                .append(String.valueOf(mf.getServePointWinP1())).append(",")
+                .append(String.valueOf(mf.getServePointWinP2())).append(",")
+                .append(String.valueOf(mf.getMarkovWinProbP1())).append(",")
+                .append(String.valueOf(mf.getWinner()))
+                .append("\n");
     }
 
     // Helper to escape quotes in strings
@@ -83,14 +147,22 @@ public class CSVWriterXGBoost {
         return "\"" + value.replace("\"", "\"\"") + "\"";
     }
 
+    /**
+     * Writes the compact column set from MatchFeatures.csvHeader / toCSVRecord.
+     */
     public static void writeFeaturesToCSV(List<MatchFeatures> featuresList, String outputPath) throws IOException {
-        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputPath));
-             CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader(MatchFeatures.csvHeader()))) {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(outputPath))) {
+            writer.append(String.join(",", MatchFeatures.csvHeader())).append("\n");
 
             for (MatchFeatures features : featuresList) {
-                csvPrinter.printRecord(features.toCSVRecord());
+                List<Object> record = features.toCSVRecord();
+                for (int i = 0; i < record.size(); i++) {
+                    if (i > 0) writer.append(",");
+                    Object value = record.get(i);
+                    writer.append(value instanceof String ? escape((String) value) : String.valueOf(value));
+                }
+                writer.append("\n");
             }
         }
     }
-
 }
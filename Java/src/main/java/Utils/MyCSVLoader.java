@@ -1,8 +1,10 @@
 package Utils;
 
 import Objects.MatchFeatures;
+import Objects.ModelData;
 import java.io.*;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.*;
 
 public class MyCSVLoader {
@@ -31,7 +33,126 @@ public class MyCSVLoader {
         return matches;
     }
 
+    /**
+     * Load raw match rows from one yearly CSV (Data/OriginalCSVs/YYYY.csv layout, optionally gzipped as .csv.gz).
+     * Columns are looked up by header name, empty cells become null for the nullable fields.
+     */
+    public static List<ModelData> loadModelData(String filePath) {
+        List<ModelData> matches = new ArrayList<>();
+
+        try (BufferedReader br = tryOpenWithFallback(filePath)) {
+            String header = br.readLine();
+            if (header == null) return matches;
+            Map<String, Integer> index = headerIndex(header);
+
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                matches.add(toModelData(line.split(",", -1), index));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return matches;
+    }
+
+    /**
+     * Year files in dir (YYYY.csv or YYYY.csv.gz), oldest first; if a year has both, the plain file is used.
+     */
+    public static List<Path> yearFiles(Path dir) {
+        File[] files = dir.toFile().listFiles((d, n) -> n.matches("\\d{4}\\.csv(\\.gz)?"));
+        if (files == null) return new ArrayList<>();
+        Map<String, Path> byYear = new TreeMap<>();
+        for (File f : files) {
+            String year = f.getName().substring(0, 4);
+            if (!f.getName().endsWith(".gz") || !byYear.containsKey(year)) byYear.put(year, f.toPath());
+        }
+        return new ArrayList<>(byYear.values());
+    }
+
+    /**
+     * yearFiles(dir) restricted to years fromYear..toYear (inclusive).
+     */
+    public static List<Path> yearFiles(Path dir, int fromYear, int toYear) {
+        List<Path> files = new ArrayList<>();
+        for (Path f : yearFiles(dir)) {
+            int year = Integer.parseInt(f.getFileName().toString().substring(0, 4));
+            if (year >= fromYear && year <= toYear) files.add(f);
+        }
+        return files;
+    }
+
+    static Map<String, Integer> headerIndex(String header) {
+        Map<String, Integer> index = new HashMap<>();
+        String[] headers = header.split(",", -1);
+        for (int i = 0; i < headers.length; i++) {
+            index.put(headers[i].trim(), i);
+        }
+        return index;
+    }
+
+    static ModelData toModelData(String[] c, Map<String, Integer> ix) {
+        return new ModelData(
+                str(c, ix, "tourney_id"), str(c, ix, "tourney_name"), str(c, ix, "surface"),
+                intOrZero(c, ix, "draw_size"), str(c, ix, "tourney_level"),
+                intOrZero(c, ix, "tourney_date"), intOrZero(c, ix, "match_num"),
+                intOrZero(c, ix, "winner_id"), str(c, ix, "winner_seed"), str(c, ix, "winner_entry"),
+                str(c, ix, "winner_name"), str(c, ix, "winner_hand"), integer(c, ix, "winner_ht"),
+                str(c, ix, "winner_ioc"), dbl(c, ix, "winner_age"), integer(c, ix, "winner_rank"),
+                integer(c, ix, "winner_rank_points"),
+                intOrZero(c, ix, "loser_id"), str(c, ix, "loser_seed"), str(c, ix, "loser_entry"),
+                str(c, ix, "loser_name"), str(c, ix, "loser_hand"), integer(c, ix, "loser_ht"),
+                str(c, ix, "loser_ioc"), dbl(c, ix, "loser_age"), integer(c, ix, "loser_rank"),
+                integer(c, ix, "loser_rank_points"),
+                str(c, ix, "score"), intOrZero(c, ix, "best_of"), str(c, ix, "round"), integer(c, ix, "minutes"),
+                integer(c, ix, "w_ace"), integer(c, ix, "w_df"), integer(c, ix, "w_svpt"), integer(c, ix, "w_1stIn"),
+                integer(c, ix, "w_1stWon"), integer(c, ix, "w_2ndWon"), integer(c, ix, "w_SvGms"),
+                integer(c, ix, "w_bpSaved"), integer(c, ix, "w_bpFaced"),
+                integer(c, ix, "l_ace"), integer(c, ix, "l_df"), integer(c, ix, "l_svpt"), integer(c, ix, "l_1stIn"),
+                integer(c, ix, "l_1stWon"), integer(c, ix, "l_2ndWon"), integer(c, ix, "l_SvGms"),
+                integer(c, ix, "l_bpSaved"), integer(c, ix, "l_bpFaced"));
+    }
+
+    // -------------------------
+    // Cell parsing helpers
+    // -------------------------
+    private static String str(String[] cols, Map<String, Integer> ix, String name) {
+        Integer i = ix.get(name);
+        return (i == null || i >= cols.length) ? null : cols[i];
+    }
+
+    private static Integer integer(String[] cols, Map<String, Integer> ix, String name) {
+        String v = str(cols, ix, name);
+        if (v == null || v.isEmpty()) return null;
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException e) {
+            try {
+                return (int) Double.parseDouble(v); // some years store counts as 12.0
+            } catch (NumberFormatException e2) {
+                return null; // e.g. alphanumeric player ids
+            }
+        }
+    }
+
+    private static int intOrZero(String[] cols, Map<String, Integer> ix, String name) {
+        Integer v = integer(cols, ix, name);
+        return v != null ? v : 0;
+    }
+
+    private static Double dbl(String[] cols, Map<String, Integer> ix, String name) {
+        String v = str(cols, ix, name);
+        if (v == null || v.isEmpty()) return null;
+        try {
+            return Double.parseDouble(v);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     private static BufferedReader tryOpenWithFallback(String filePath) throws IOException {
+        if (filePath.endsWith(".gz")) return PipelinedCsvLoader.open(Path.of(filePath));
         try {
             return new BufferedReader(new InputStreamReader(new FileInputStream(filePath), Charset.defaultCharset()));
         } catch (Exception e) {
@@ -0,0 +1,248 @@
+package Utils;
+
+import Objects.ModelData;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * PipelinedCsvLoader - loads many year files (plain YYYY.csv or gzip YYYY.csv.gz) with reading/decompression
+ * and parsing on separate threads.
+ *
+ * Usage:
+ *  - List<List<ModelData>> perFile = PipelinedCsvLoader.loadAll(files);   // same order as files
+ *
+ * Notes:
+ *  - Reader threads (one file at a time each, several files concurrently) decompress and split lines into
+ *    batches of BATCH_LINES; parser threads turn batches into ModelData. They are joined by a bounded queue of
+ *    QUEUE_BATCHES batches, so readers block instead of buffering a whole decompressed file when parsing lags.
+ *  - Rows come back in file order, exactly as MyCSVLoader.loadModelData would return them.
+ *  - Unlike MyCSVLoader, an unreadable file fails the whole load with its IOException. Any failure, including
+ *    an Error in a parser thread, stops the readers, so a failed load never leaves threads blocked on the
+ *    queue.
+ *  - On a single core, loadAll(files) reads and parses on the calling thread instead.
+ */
+public class PipelinedCsvLoader {
+
+    private static final int BATCH_LINES = 2048;
+    private static final int QUEUE_BATCHES = 64;
+    private static final int GZIP_BUFFER = 1 << 16;
+
+    /**
+     * A run of consecutive data lines of one file; seq orders the batches of a file.
+     */
+    private static final class Batch {
+        final int file;
+        final int seq;
+        final Map<String, Integer> header;
+        final String[] lines;
+        final int count;
+
+        Batch(int file, int seq, Map<String, Integer> header, String[] lines, int count) {
+            this.file = file;
+            this.seq = seq;
+            this.header = header;
+            this.lines = lines;
+            this.count = count;
+        }
+    }
+
+    private static final Batch END = new Batch(-1, -1, null, new String[0], 0);
+
+    public static List<List<ModelData>> loadAll(List<Path> files) throws IOException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        if (cores < 2) return loadInline(files);
+        int readers = Math.max(1, Math.min(files.size(), cores / 2));
+        return loadAll(files, readers, Math.max(1, cores - readers));
+    }
+
+    public static List<List<ModelData>> loadAll(List<Path> files, int readerThreads, int parserThreads) throws IOException {
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_BATCHES);
+        Map<Long, List<ModelData>> parsed = new ConcurrentHashMap<>();
+        int[] batchesPerFile = new int[files.size()];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        ExecutorService readerPool = Executors.newFixedThreadPool(readerThreads);
+        ExecutorService parserPool = Executors.newFixedThreadPool(parserThreads);
+        try {
+            List<Future<?>> reads = new ArrayList<>();
+            for (int f = 0; f < files.size(); f++) {
+                int file = f;
+                reads.add(readerPool.submit(() -> {
+                    if (failure.get() != null) return;
+                    try {
+                        batchesPerFile[file] = read(files.get(file), file, queue);
+                    } catch (IOException | RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        failure.compareAndSet(null, e);
+                    }
+                }));
+            }
+
+            // readers are all submitted first, so a dying parser can cancel every one of them
+            List<Future<?>> parsers = new ArrayList<>();
+            for (int p = 0; p < parserThreads; p++) {
+                parsers.add(parserPool.submit(() -> {
+                    try {
+                        parse(queue, parsed, failure);
+                    } catch (Throwable t) {
+                        // e.g. OutOfMemoryError: with fewer parsers draining, readers could block on put forever
+                        failure.compareAndSet(null, t);
+                        for (Future<?> r : reads) r.cancel(true);
+                        throw t;
+                    }
+                }));
+            }
+
+            try {
+                for (Future<?> r : reads) r.get();
+            } finally {
+                if (failure.get() == null) {
+                    for (int p = 0; p < parserThreads; p++) queue.put(END);
+                } else {
+                    // the parsers may be gone, so END could block; interrupt the ones still waiting in take()
+                    for (Future<?> p : parsers) p.cancel(true);
+                }
+            }
+            for (Future<?> p : parsers) p.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading year files", e);
+        } catch (ExecutionException e) {
+            failure.compareAndSet(null, e.getCause());
+        } catch (CancellationException e) {
+            // a reader or parser cancelled after a failure; failure already holds the cause
+        } finally {
+            readerPool.shutdownNow();
+            parserPool.shutdownNow();
+        }
+
+        Throwable t = failure.get();
+        if (t instanceof IOException) throw (IOException) t;
+        if (t instanceof Error) throw (Error) t;
+        if (t != null) throw new IOException("Loading year files failed: " + t, t);
+
+        // batchesPerFile was written by reader threads; Future.get above orders those writes before this read
+        List<List<ModelData>> result = new ArrayList<>(files.size());
+        for (int f = 0; f < files.size(); f++) {
+            List<ModelData> rows = new ArrayList<>();
+            for (int seq = 0; seq < batchesPerFile[f]; seq++) rows.addAll(parsed.get(key(f, seq)));
+            result.add(rows);
+        }
+        return result;
+    }
+
+    /**
+     * Same result on the calling thread; with one core the hand-off between stages only costs time.
+     */
+    static List<List<ModelData>> loadInline(List<Path> files) throws IOException {
+        List<List<ModelData>> result = new ArrayList<>(files.size());
+        for (Path path : files) {
+            List<ModelData> rows = new ArrayList<>();
+            try (BufferedReader br = open(path)) {
+                String headerLine = br.readLine();
+                if (headerLine != null) {
+                    Map<String, Integer> header = MyCSVLoader.headerIndex(headerLine);
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        if (!line.isEmpty()) rows.add(MyCSVLoader.toModelData(line.split(",", -1), header));
+                    }
+                }
+            }
+            result.add(rows);
+        }
+        return result;
+    }
+
+    // -------------------------
+    // Stages
+    // -------------------------
+
+    /**
+     * Decompress (if .gz) and split one file into batches; returns the number of batches queued.
+     */
+    private static int read(Path path, int file, BlockingQueue<Batch> queue) throws IOException, InterruptedException {
+        try (BufferedReader br = open(path)) {
+            String headerLine = br.readLine();
+            if (headerLine == null) return 0;
+            Map<String, Integer> header = MyCSVLoader.headerIndex(headerLine);
+
+            int seq = 0;
+            String[] lines = new String[BATCH_LINES];
+            int n = 0;
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                lines[n++] = line;
+                if (n == BATCH_LINES) {
+                    queue.put(new Batch(file, seq++, header, lines, n));
+                    lines = new String[BATCH_LINES];
+                    n = 0;
+                }
+            }
+            if (n > 0) queue.put(new Batch(file, seq++, header, lines, n));
+            return seq;
+        }
+    }
+
+    private static void parse(BlockingQueue<Batch> queue, Map<Long, List<ModelData>> parsed,
+                              AtomicReference<Throwable> failure) {
+        try {
+            while (true) {
+                Batch b = queue.take();
+                if (b == END) return;
+                if (failure.get() != null) continue; // keep draining so readers never block on a full queue
+                try {
+                    List<ModelData> rows = new ArrayList<>(b.count);
+                    for (int i = 0; i < b.count; i++) rows.add(MyCSVLoader.toModelData(b.lines[i].split(",", -1), b.header));
+                    parsed.put(key(b.file, b.seq), rows);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+
+    static BufferedReader open(Path path) throws IOException {
+        InputStream in = new FileInputStream(path.toFile());
+        if (path.getFileName().toString().endsWith(".gz")) {
+            try {
+                in = new GZIPInputStream(in, GZIP_BUFFER); // reads the gzip header, so a bad file fails here
+            } catch (IOException | RuntimeException e) {
+                in.close();
+                throw e;
+            }
+        }
+        return new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()));
+    }
+
+    private static long key(int file, int seq) {
+        return ((long) file << 32) | seq;
+    }
+}
@@ -1,32 +1,218 @@
 package Utils;
 
-import Model.*;
-import Objects.*;
+import Model.DecayedPlayerStats;
+import Model.FeatureEngineer;
+import Model.OffHeapPlayerState;
+import Model.ServeMarkovModel;
+import Objects.MatchFeatures;
+import Objects.ModelData;
 
-import java.io.FileReader;
 import java.io.IOException;
-import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
+/**
+ * PrepareXGBoostData - end-to-end pipeline: parse -> validate -> features -> export.
+ *
+ * Usage:
+ *  PrepareXGBoostData [--input Data/OriginalCSVs] [--output Data/xgboost_input.csv] [--cache Data/cache]
+ *                     [--orientation WINNER_FIRST|RANDOM|BOTH] [--seed 42] [--no-cache] [--off-heap]
+ *  --off-heap needs the JVM started with --enable-preview: java --enable-preview Utils.PrepareXGBoostData --off-heap
+ *
+ * Notes:
+ *  - Input year files may be plain YYYY.csv or gzip YYYY.csv.gz (see MyCSVLoader.yearFiles); uncached years are
+ *    decompressed and parsed concurrently by PipelinedCsvLoader.
+ *  - Every stage result is cached by StageCache under a hash of its inputs and config:
+ *      parse-YYYY : hash of that year file's bytes (compressed bytes for .gz)
+ *      validate   : hash of all parse keys + VALIDATE_VERSION
+ *      features   : hash of the validate key + feature config
+ *      export     : the features key, stored next to the output as <output>.key once the CSV is complete
+ *  - Keys are computed top-down before anything is loaded, so a features hit never parses a CSV and a
+ *    change to one year file re-parses only that file (later stages rerun since they span all years).
+ *  - Bump VALIDATE_VERSION when validate() keeps or orders rows differently, and FEATURE_VERSION when
+ *    FeatureEngineer output or the export columns change without a config change.
+ *  - --off-heap keeps player state in an OffHeapPlayerState instead of heap maps. Both backends produce the
+ *    same features, so the choice is not part of the features key. OffHeapPlayerState is a Java 21 preview class,
+ *    so --off-heap fails with UnsupportedClassVersionError unless java runs with --enable-preview.
+ */
 public class PrepareXGBoostData {
 
-    public class Main {
-        public static void main(String[] args) {
-            String inputCSV = "Data/merged_matches.csv";
-            String outputCSV = "Data/xgboost_input.csv";
-
-            FeatureEngineer fe = new FeatureEngineer();
-            try {
-                List<MatchResult> matches = fe.loadMatches(inputCSV);
-                List<MatchFeatures> features = fe.generateFeatures(matches);
-                CSVWriterXGBoost.writeFeaturesToCSV(features, outputCSV);
-                System.out.println("Feature CSV for XGBoost created: " + outputCSV);
-            } catch (IOException e) {
-                System.err.println("Error creating XGBoost input data: " + e.getMessage());
+    private static final int VALIDATE_VERSION = 1;
+    private static final int FEATURE_VERSION = 4;
+    private static final int EXPECTED_PLAYERS = 1 << 14; // off-heap initial capacity; ~6k players in 1968-2025
+
+    public static void main(String[] args) {
+        String input = "Data/OriginalCSVs";
+        String output = "Data/xgboost_input.csv";
+        String cacheDir = "Data/cache";
+        FeatureEngineer.Orientation orientation = FeatureEngineer.Orientation.WINNER_FIRST;
+        long seed = 42L;
+        boolean useCache = true;
+        boolean offHeap = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--input": input = args[++i]; break;
+                case "--output": output = args[++i]; break;
+                case "--cache": cacheDir = args[++i]; break;
+                case "--orientation": orientation = FeatureEngineer.Orientation.valueOf(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--no-cache": useCache = false; break;
+                case "--off-heap": offHeap = true; break;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    return;
+            }
+        }
+
+        try {
+            run(Path.of(input), Path.of(output), new StageCache(Path.of(cacheDir), useCache), orientation, seed, offHeap);
+        } catch (IOException e) {
+            System.err.println("Error creating XGBoost input data: " + e.getMessage());
+        }
+    }
+
+    public static void run(Path inputDir, Path output, StageCache cache,
+                           FeatureEngineer.Orientation orientation, long seed) throws IOException {
+        run(inputDir, output, cache, orientation, seed, false);
+    }
+
+    public static void run(Path inputDir, Path output, StageCache cache,
+                           FeatureEngineer.Orientation orientation, long seed, boolean offHeap) throws IOException {
+        long start = System.nanoTime();
+
+        // Keys first: hashing files is much cheaper than parsing them
+        List<Path> yearFiles = MyCSVLoader.yearFiles(inputDir);
+        if (yearFiles.isEmpty()) throw new IOException("No YYYY.csv or YYYY.csv.gz files in " + inputDir);
+        String[] parseKeys = parseKeys(yearFiles);
+        String validateKey = StageCache.hash("validate", BinaryCodec.FORMAT_VERSION, VALIDATE_VERSION,
+                String.join(",", parseKeys));
+        String featuresKey = StageCache.hash("features", BinaryCodec.FORMAT_VERSION, FEATURE_VERSION, validateKey,
+                orientation, seed,
+                DecayedPlayerStats.DEFAULT_WIN_HALF_LIFE_DAYS, DecayedPlayerStats.DEFAULT_SERVE_HALF_LIFE_DAYS,
+                DecayedPlayerStats.DEFAULT_BP_HALF_LIFE_DAYS, DecayedPlayerStats.DEFAULT_SURFACE_HALF_LIFE_DAYS,
+                DecayedPlayerStats.POINT_PRIOR, ServeMarkovModel.TOUR_SERVE_POINT_RATE);
+
+        // Export: nothing to do if the output was written from these exact features
+        Path keyFile = Path.of(output + ".key");
+        if (Files.isRegularFile(output) && Files.isRegularFile(keyFile)
+                && featuresKey.equals(Files.readString(keyFile, StandardCharsets.UTF_8).trim())) {
+            System.out.println("Output up to date: " + output);
+            return;
+        }
+
+        List<MatchFeatures> features = cache.get("features", featuresKey, BinaryCodec::readMatchFeatures);
+        if (features == null) {
+            List<ModelData> valid = cache.get("validate", validateKey, BinaryCodec::readModelData);
+            if (valid == null) {
+                valid = validate(parse(yearFiles, parseKeys, cache));
+                cache.put("validate", validateKey, valid, BinaryCodec::writeModelData);
+            }
+            features = buildFeatures(valid, orientation, seed, offHeap);
+            cache.put("features", featuresKey, features, BinaryCodec::writeMatchFeatures);
+        }
+
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        // the key only goes down once the CSV is complete, so a failed export is redone next run
+        CSVWriterXGBoost.writeCSV(features, output);
+        Files.writeString(keyFile, featuresKey, StandardCharsets.UTF_8);
+
+        System.out.printf("Feature CSV for XGBoost created: %s (%d rows, cache hits %d / misses %d, %.1fs)%n",
+                output, features.size(), cache.hits(), cache.misses(), (System.nanoTime() - start) / 1e9);
+    }
+
+    // -------------------------
+    // Stages
+    // -------------------------
+
+    /**
+     * Raw rows of the given year files in file order, through the same parse-YYYY cache entries as run()
+     * (e.g. for SeasonTailWatcher's history years).
+     */
+    static List<ModelData> parse(List<Path> yearFiles, StageCache cache) throws IOException {
+        return parse(yearFiles, parseKeys(yearFiles), cache);
+    }
+
+    private static String[] parseKeys(List<Path> yearFiles) throws IOException {
+        String[] parseKeys = new String[yearFiles.size()];
+        for (int i = 0; i < yearFiles.size(); i++) {
+            parseKeys[i] = StageCache.hash("parse", BinaryCodec.FORMAT_VERSION, StageCache.hashFile(yearFiles.get(i)));
+        }
+        return parseKeys;
+    }
+
+    /**
+     * Cached years come from the stage cache; all others are loaded together by PipelinedCsvLoader.
+     */
+    private static List<ModelData> parse(List<Path> yearFiles, String[] parseKeys, StageCache cache) throws IOException {
+        List<List<ModelData>> years = new ArrayList<>(yearFiles.size());
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < yearFiles.size(); i++) {
+            List<ModelData> year = cache.get(parseStage(yearFiles.get(i)), parseKeys[i], BinaryCodec::readModelData);
+            if (year == null) missing.add(i);
+            years.add(year);
+        }
+
+        if (!missing.isEmpty()) {
+            List<Path> toLoad = new ArrayList<>(missing.size());
+            for (int i : missing) toLoad.add(yearFiles.get(i));
+            List<List<ModelData>> loaded = PipelinedCsvLoader.loadAll(toLoad);
+            for (int k = 0; k < missing.size(); k++) {
+                int i = missing.get(k);
+                years.set(i, loaded.get(k));
+                cache.put(parseStage(yearFiles.get(i)), parseKeys[i], loaded.get(k), BinaryCodec::writeModelData);
             }
         }
+
+        List<ModelData> all = new ArrayList<>();
+        for (List<ModelData> year : years) all.addAll(year);
+        return all;
+    }
+
+    // "parse-2024" for both 2024.csv and 2024.csv.gz (the hash in the key tells them apart)
+    private static String parseStage(Path yearFile) {
+        return "parse-" + yearFile.getFileName().toString().substring(0, 4);
+    }
+
+    private static List<MatchFeatures> buildFeatures(List<ModelData> valid, FeatureEngineer.Orientation orientation,
+                                                     long seed, boolean offHeap) {
+        if (!offHeap) return new FeatureEngineer(valid).buildAllParallel(orientation, seed);
+        try (OffHeapPlayerState state = OffHeapPlayerState.inMemory(EXPECTED_PLAYERS)) {
+            return new FeatureEngineer(valid, state).buildAllParallel(orientation, seed);
+        }
+    }
+
+    /**
+     * Drop rows FeatureEngineer cannot use and order the rest chronologically.
+     * The sort is stable, so matches keep their file order within a tournament week.
+     */
+    public static List<ModelData> validate(List<ModelData> matches) {
+        List<ModelData> valid = new ArrayList<>(matches.size());
+        int dropped = 0;
+        for (ModelData m : matches) {
+            if (!isValid(m)) {
+                dropped++;
+                continue;
+            }
+            valid.add(m);
+        }
+        valid.sort(Comparator.comparingInt(ModelData::getTourney_date));
+        if (dropped > 0) System.out.println("Validation dropped " + dropped + " of " + matches.size() + " rows");
+        return valid;
+    }
+
+    static boolean isValid(ModelData m) {
+        return !isBlank(m.getWinner_name()) && !isBlank(m.getLoser_name())
+                && !m.getWinner_name().equals(m.getLoser_name()) && m.getTourney_date() > 0;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
     }
 
 }
@@ -0,0 +1,139 @@
+package Utils;
+
+import Model.FeatureEngineer;
+import Model.OffHeapPlayerState;
+import Objects.MatchFeatures;
+import Objects.ModelData;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ScaleHarness - runs the PrepareXGBoostData stages (parse -> validate -> features -> export) on synthetic data
+ * at several scales and reports throughput and peak heap per stage, then the features stage again with player
+ * state off-heap.
+ *
+ * Usage:
+ *  - ScaleHarness [workDir] [scales...]     e.g. ScaleHarness /tmp/tp-scale 1 10 100
+ *  - run with java --enable-preview: the offheap stage loads OffHeapPlayerState, a Java 21 preview class
+ *  - defaults: workDir = system temp dir, scales = 1 10
+ *
+ * Notes:
+ *  - Data for each scale is generated once into workDir/scale-N and reused by later runs.
+ *  - Stages make the same calls as PrepareXGBoostData.run with --no-cache: PipelinedCsvLoader.loadAll,
+ *    PrepareXGBoostData.validate, buildAllParallel(WINNER_FIRST, seed) and CSVWriterXGBoost.writeCSV.
+ *    File hashing for the cache keys is left out.
+ *  - Peak heap is the sum of heap pool peaks during the stage (pools are reset before each stage),
+ *    so it includes garbage that had not been collected yet. Run with a fixed -Xmx for comparable numbers.
+ *  - The offheap stage builds the same rows with an OffHeapPlayerState; its off-heap footprint is printed
+ *    after the table row. Its peak heap still includes the rows themselves and the loaded matches' share of
+ *    the stage's garbage.
+ */
+public class ScaleHarness {
+
+    private static final int FROM_YEAR = 1968;
+    private static final int TO_YEAR = 2025;
+    private static final long SEED = 42L;
+    private static final FeatureEngineer.Orientation ORIENTATION = FeatureEngineer.Orientation.WINNER_FIRST;
+
+    public static void main(String[] args) throws IOException {
+        Path workDir = Path.of(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"), "tennis-scale");
+        List<Double> scales = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) scales.add(Double.parseDouble(args[i]));
+        if (scales.isEmpty()) scales = List.of(1.0, 10.0);
+
+        System.out.printf("%-7s %-8s %12s %12s %10s %10s%n", "scale", "stage", "rows", "rows/s", "peakMB", "gcMs");
+        for (double scale : scales) {
+            runScale(workDir.resolve("scale-" + scale), scale);
+        }
+    }
+
+    private static void runScale(Path dataDir, double scale) throws IOException {
+        if (!Files.isDirectory(dataDir)) {
+            SyntheticMatchGenerator gen = new SyntheticMatchGenerator(scale, SEED);
+            if (Files.isDirectory(Path.of("Data/OriginalCSVs"))) gen.calibrate("Data/OriginalCSVs");
+            gen.generate(dataDir, FROM_YEAR, TO_YEAR);
+        }
+
+        // Parse
+        Stage parse = Stage.start();
+        List<ModelData> parsed = new ArrayList<>();
+        for (List<ModelData> year : PipelinedCsvLoader.loadAll(MyCSVLoader.yearFiles(dataDir, FROM_YEAR, TO_YEAR))) {
+            parsed.addAll(year);
+        }
+        parse.report(scale, "parse", parsed.size());
+
+        // Validate
+        Stage validate = Stage.start();
+        List<ModelData> matches = PrepareXGBoostData.validate(parsed);
+        parsed = null;
+        validate.report(scale, "validate", matches.size());
+
+        // Features
+        Stage features = Stage.start();
+        List<MatchFeatures> rows = new FeatureEngineer(matches).buildAllParallel(ORIENTATION, SEED);
+        features.report(scale, "features", rows.size());
+
+        // Export
+        Stage export = Stage.start();
+        Path out = dataDir.resolve("features.csv");
+        CSVWriterXGBoost.writeCSV(rows, out);
+        export.report(scale, "export", rows.size());
+        rows = null; // keep the heap rows out of the off-heap stage's peak
+
+        // Features again, player state off-heap
+        Stage offHeapFeatures = Stage.start();
+        try (OffHeapPlayerState state = OffHeapPlayerState.inMemory(1 << 14)) {
+            int built = new FeatureEngineer(matches, state).buildAllParallel(ORIENTATION, SEED).size();
+            offHeapFeatures.report(scale, "offheap", built);
+            System.out.printf("%-7s %-8s %d players, %d MB off-heap%n", scale, "", state.playerCount(),
+                    state.offHeapBytes() / (1024 * 1024));
+        }
+    }
+
+    /**
+     * Wall time, heap pool peaks and GC time for one stage.
+     */
+    private static final class Stage {
+        private final long startNanos;
+        private final long startGcMillis;
+
+        private Stage(long startNanos, long startGcMillis) {
+            this.startNanos = startNanos;
+            this.startGcMillis = startGcMillis;
+        }
+
+        static Stage start() {
+            System.gc(); // start every stage from a collected heap so peaks belong to this stage
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+            }
+            return new Stage(System.nanoTime(), gcMillis());
+        }
+
+        void report(double scale, String name, long rows) {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+            }
+            System.out.printf("%-7s %-8s %12d %12.0f %10d %10d%n", scale, name, rows,
+                    seconds > 0 ? rows / seconds : 0.0, peak / (1024 * 1024), gcMillis() - startGcMillis);
+        }
+
+        private static long gcMillis() {
+            long total = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                total += Math.max(0, gc.getCollectionTime());
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package Utils;
+
+import Model.FeatureEngineer;
+import Objects.MatchFeatures;
+import Objects.ModelData;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * SeasonTailWatcher - follows the in-progress season file and turns newly appended rows into feature rows.
+ *
+ * Usage:
+ *  SeasonTailWatcher [--input Data/OriginalCSVs] [--season <input>/<latest YYYY>.csv] [--output Data/xgboost_season.csv]
+ *                    [--cache Data/cache] [--orientation WINNER_FIRST|RANDOM|BOTH] [--seed 42] [--no-cache]
+ *
+ *  - start(...) loads every year file (earlier years may be .csv.gz, and come from PrepareXGBoostData's
+ *    parse-YYYY cache entries when present), builds player state and writes the full export
+ *  - watch() then blocks; each time the season file grows, only the bytes past the last read offset are parsed,
+ *    pushed through FeatureEngineer.ingest and appended to the export
+ *  - poll() does a single check, for callers that schedule their own refreshes
+ *
+ * Notes:
+ *  - The season file itself must be plain CSV, since it is followed by byte offset.
+ *  - Only complete lines are consumed; a row that is still being written is picked up on the next change.
+ *  - New rows go through the pipeline's validation, which drops unusable rows and orders the rest by
+ *    tourney_date, exactly as in the full build. If a new row is dated before the latest match already
+ *    ingested, state and export are rebuilt instead, so the export always equals what PrepareXGBoostData
+ *    would write with the same orientation and seed.
+ *  - If the file shrinks or the bytes already consumed change (SHA-256 of the consumed prefix, re-checked
+ *    whenever the file's size or mtime changes; e.g. the season file was re-downloaded with corrections),
+ *    state and export are rebuilt from scratch.
+ *  - WatchService wakes the loop as soon as the file changes; the loop also re-checks every POLL_MILLIS so it
+ *    keeps working where WatchService falls back to slow polling.
+ *  - The default output is separate from PrepareXGBoostData's. If both are pointed at the same file, the
+ *    watcher owns it while it runs: it removes <output>.key so PrepareXGBoostData rebuilds it next time
+ *    instead of treating the appended file as up to date.
+ */
+public class SeasonTailWatcher {
+
+    private static final long POLL_MILLIS = 1000;
+
+    private final Path inputDir;
+    private final Path seasonFile;
+    private final Path output;
+    private final StageCache cache;
+    private final FeatureEngineer.Orientation orientation;
+    private final long seed;
+
+    private FeatureEngineer engineer;
+    private SplittableRandom rng;        // orientation draws, continuing the full build's sequence
+    private int lastDate;                // latest tourney_date ingested
+    private Map<String, Integer> header; // null until the season file has a complete header line
+    private long offset;                 // bytes of the season file consumed so far (always at a line start)
+    private MessageDigest consumed;      // SHA-256 of those bytes, to detect rewrites
+    private long checkedSize = -1;       // file size and mtime when the prefix was last known to match
+    private FileTime checkedMtime;
+    private long ingested;
+
+    private SeasonTailWatcher(Path inputDir, Path seasonFile, Path output, StageCache cache,
+                              FeatureEngineer.Orientation orientation, long seed) {
+        this.inputDir = inputDir;
+        this.seasonFile = seasonFile;
+        this.output = output;
+        this.cache = cache;
+        this.orientation = orientation;
+        this.seed = seed;
+    }
+
+    public static SeasonTailWatcher start(Path inputDir, Path seasonFile, Path output, StageCache cache,
+                                          FeatureEngineer.Orientation orientation, long seed) throws IOException {
+        SeasonTailWatcher watcher = new SeasonTailWatcher(inputDir, seasonFile, output, cache, orientation, seed);
+        watcher.rebuild();
+        return watcher;
+    }
+
+    // -------------------------
+    // Full build
+    // -------------------------
+
+    private void rebuild() throws IOException {
+        long start = System.nanoTime();
+        header = null;
+        offset = 0;
+        consumed = sha256();
+        checkedSize = -1;
+
+        List<Path> history = new ArrayList<>();
+        Path season = seasonFile.toAbsolutePath().normalize();
+        for (Path year : MyCSVLoader.yearFiles(inputDir)) {
+            if (!year.toAbsolutePath().normalize().equals(season)) history.add(year);
+        }
+        List<ModelData> matches = PrepareXGBoostData.parse(history, cache);
+        // the season file goes through the same byte reader as later appends, so offset matches what was parsed
+        matches.addAll(readNewRows());
+
+        List<ModelData> valid = PrepareXGBoostData.validate(matches);
+        engineer = new FeatureEngineer(valid);
+        rng = new SplittableRandom(seed);
+        lastDate = valid.isEmpty() ? 0 : valid.get(valid.size() - 1).getTourney_date();
+        List<MatchFeatures> rows = orient(engineer.buildAllParallel(FeatureEngineer.Orientation.WINNER_FIRST, 0L));
+
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        CSVWriterXGBoost.writeCSV(rows, output);
+        Files.deleteIfExists(Path.of(output + ".key"));
+
+        System.out.printf("Built %d rows; following %s from byte %d (%.1fs)%n",
+                rows.size(), seasonFile, offset, (System.nanoTime() - start) / 1e9);
+    }
+
+    // -------------------------
+    // Incremental path
+    // -------------------------
+
+    /**
+     * Ingest whatever was appended since the last call. Returns the number of feature rows appended.
+     */
+    public int poll() throws IOException {
+        if (!Files.isRegularFile(seasonFile)) return 0;
+        if (rewritten()) {
+            System.out.println(seasonFile + " was rewritten, rebuilding");
+            rebuild();
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        List<ModelData> fresh = readNewRows();
+        if (fresh.isEmpty()) return 0;
+
+        List<ModelData> valid = PrepareXGBoostData.validate(fresh);
+        if (!valid.isEmpty() && valid.get(0).getTourney_date() < lastDate) {
+            System.out.println(seasonFile + " gained a match dated before " + lastDate + ", rebuilding");
+            rebuild();
+            return 0;
+        }
+        List<MatchFeatures> winnerFirst = new ArrayList<>(valid.size());
+        for (ModelData m : valid) {
+            winnerFirst.add(engineer.ingest(m));
+            lastDate = m.getTourney_date();
+        }
+        List<MatchFeatures> rows = orient(winnerFirst);
+        CSVWriterXGBoost.appendToCSV(rows, output.toString());
+        ingested += rows.size();
+
+        System.out.printf("%d new row(s) -> %d feature row(s) in %.2f ms (total %d)%n",
+                fresh.size(), rows.size(), (System.nanoTime() - start) / 1e6, ingested);
+        return rows.size();
+    }
+
+    /**
+     * Block and follow the season file until the thread is interrupted.
+     */
+    public void watch() throws IOException {
+        Path dir = seasonFile.toAbsolutePath().getParent();
+        try (WatchService ws = dir.getFileSystem().newWatchService()) {
+            dir.register(ws, ENTRY_CREATE, ENTRY_MODIFY);
+            poll(); // anything appended while the initial build ran
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = ws.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents(); // which file changed does not matter: poll() only looks at seasonFile
+                    key.reset();
+                }
+                poll();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Parse the complete lines between offset and the end of the file and advance offset past them.
+     */
+    private List<ModelData> readNewRows() throws IOException {
+        List<ModelData> rows = new ArrayList<>();
+        if (!Files.isRegularFile(seasonFile)) return rows;
+
+        byte[] bytes;
+        try (FileChannel ch = FileChannel.open(seasonFile, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size <= offset) return rows;
+            ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(size - offset));
+            while (buf.hasRemaining() && ch.read(buf, offset + buf.position()) > 0) {
+                // keep reading until the buffer is full or the file ends
+            }
+            bytes = Arrays.copyOf(buf.array(), buf.position());
+        }
+
+        int end = lastIndexOf(bytes, (byte) '\n') + 1; // only complete lines
+        if (end == 0) return rows;
+
+        int lineStart = 0;
+        for (int i = 0; i < end; i++) {
+            if (bytes[i] != '\n') continue;
+            String line = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8);
+            if (line.endsWith("\r")) line = line.substring(0, line.length() - 1);
+            if (header == null) {
+                header = MyCSVLoader.headerIndex(line);
+            } else if (!line.isEmpty()) {
+                rows.add(MyCSVLoader.toModelData(line.split(",", -1), header));
+            }
+            lineStart = i + 1;
+        }
+        consumed.update(bytes, 0, end);
+        offset += end;
+        return rows;
+    }
+
+    /**
+     * True if the bytes already consumed are no longer a prefix of the file. The prefix is only re-hashed when
+     * size or mtime differ from the last check, so an idle poll costs one stat.
+     */
+    private boolean rewritten() throws IOException {
+        if (offset == 0) return false;
+        try (FileChannel ch = FileChannel.open(seasonFile, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < offset) return true;
+            FileTime mtime = Files.getLastModifiedTime(seasonFile);
+            if (size == checkedSize && mtime.equals(checkedMtime)) return false;
+
+            MessageDigest md = sha256();
+            ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+            long pos = 0;
+            while (pos < offset) {
+                buf.clear().limit((int) Math.min(buf.capacity(), offset - pos));
+                int n = ch.read(buf, pos);
+                if (n <= 0) return true;
+                md.update(buf.array(), 0, n);
+                pos += n;
+            }
+            if (!MessageDigest.isEqual(md.digest(), digestOf(consumed))) return true;
+            checkedSize = size;
+            checkedMtime = mtime;
+            return false;
+        }
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+
+    /**
+     * Rows in the watcher's orientation, drawing from the same rng as the full build.
+     */
+    private List<MatchFeatures> orient(List<MatchFeatures> winnerFirst) {
+        if (orientation == FeatureEngineer.Orientation.WINNER_FIRST) return winnerFirst;
+        List<MatchFeatures> rows = new ArrayList<>(orientation == FeatureEngineer.Orientation.BOTH
+                ? winnerFirst.size() * 2 : winnerFirst.size());
+        for (MatchFeatures mf : winnerFirst) FeatureEngineer.addOriented(rows, mf, orientation, rng);
+        return rows;
+    }
+
+    // digest of what has been hashed so far, leaving md open for more bytes
+    private static byte[] digestOf(MessageDigest md) {
+        try {
+            return ((MessageDigest) md.clone()).digest();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest cannot be cloned", e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static int lastIndexOf(byte[] bytes, byte b) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] == b) return i;
+        }
+        return -1;
+    }
+
+    public long ingested() { return ingested; }
+    public long offset() { return offset; }
+
+    public static void main(String[] args) {
+        Path input = Path.of("Data/OriginalCSVs");
+        Path season = null;
+        Path output = Path.of("Data/xgboost_season.csv");
+        String cacheDir = "Data/cache";
+        FeatureEngineer.Orientation orientation = FeatureEngineer.Orientation.WINNER_FIRST;
+        long seed = 42L;
+        boolean useCache = true;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--input": input = Path.of(args[++i]); break;
+                case "--season": season = Path.of(args[++i]); break;
+                case "--output": output = Path.of(args[++i]); break;
+                case "--cache": cacheDir = args[++i]; break;
+                case "--orientation": orientation = FeatureEngineer.Orientation.valueOf(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--no-cache": useCache = false; break;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    return;
+            }
+        }
+
+        try {
+            if (season == null) {
+                for (Path year : MyCSVLoader.yearFiles(input)) {
+                    if (year.getFileName().toString().endsWith(".csv")) season = year; // latest plain file
+                }
+                if (season == null) {
+                    System.err.println("No YYYY.csv files in " + input);
+                    return;
+                }
+            }
+            StageCache cache = new StageCache(Path.of(cacheDir), useCache);
+            SeasonTailWatcher.start(input, season, output, cache, orientation, seed).watch();
+        } catch (IOException e) {
+            System.err.println("Season watcher stopped: " + e.getMessage());
+        }
+    }
+}
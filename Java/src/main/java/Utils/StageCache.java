@@ -0,0 +1,157 @@
+package Utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * StageCache - binary results of pipeline stages on disk, keyed by a content hash of their inputs and config.
+ *
+ * Usage:
+ *  - String key = StageCache.hash("parse", StageCache.hashFile(csv));
+ *  - T value = cache.get("parse-2025", key, reader); if null compute it and cache.put("parse-2025", key, value, writer)
+ *
+ * Notes:
+ *  - One file per stage: <stage>-<key>.bin. Putting a new key removes the stage's older entries.
+ *  - Every file starts with MAGIC and BinaryCodec.FORMAT_VERSION; anything that does not match or fails to
+ *    decode is treated as a miss.
+ *  - Writes go to a temp file and are moved into place, so an interrupted run never leaves a torn entry.
+ */
+public class StageCache {
+
+    private static final int MAGIC = 0x54504331; // "TPC1"
+
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Writer<T> {
+        void write(DataOutputStream out, T value) throws IOException;
+    }
+
+    private final Path dir;
+    private final boolean enabled;
+    private int hits;
+    private int misses;
+
+    public StageCache(Path dir, boolean enabled) {
+        this.dir = dir;
+        this.enabled = enabled;
+    }
+
+    public <T> T get(String stage, String key, Reader<T> reader) {
+        if (!enabled) {
+            misses++;
+            return null;
+        }
+        Path file = dir.resolve(stage + "-" + key + ".bin");
+        if (!Files.isRegularFile(file)) {
+            misses++;
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != BinaryCodec.FORMAT_VERSION) {
+                misses++;
+                return null;
+            }
+            T value = reader.read(in);
+            hits++;
+            return value;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable cache entry " + file + ": " + e.getMessage());
+            misses++;
+            return null;
+        }
+    }
+
+    public <T> void put(String stage, String key, T value, Writer<T> writer) {
+        if (!enabled) return;
+        try {
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, stage, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(BinaryCodec.FORMAT_VERSION);
+                writer.write(out, value);
+            }
+            Path file = dir.resolve(stage + "-" + key + ".bin");
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            removeStale(stage, file);
+        } catch (IOException e) {
+            // the cache is an optimisation; a failed write only costs a recompute next time
+            System.err.println("Could not write cache entry for " + stage + ": " + e.getMessage());
+        }
+    }
+
+    private void removeStale(String stage, Path keep) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, stage + "-*.bin")) {
+            for (Path p : entries) {
+                // "parse-2025-<hash>" must not match stage "parse-2025-extra" etc.: key is the last 64 hex chars
+                String name = p.getFileName().toString();
+                if (!p.equals(keep) && name.length() == stage.length() + 1 + 64 + 4) Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    public int hits() { return hits; }
+    public int misses() { return misses; }
+
+    // -------------------------
+    // Hashing
+    // -------------------------
+
+    /**
+     * SHA-256 of a file's bytes, hex encoded.
+     */
+    public static String hashFile(Path file) throws IOException {
+        MessageDigest md = sha256();
+        byte[] buf = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buf)) > 0) md.update(buf, 0, n);
+        }
+        return hex(md.digest());
+    }
+
+    /**
+     * SHA-256 over the given parts (length-prefixed, so ("ab","c") != ("a","bc")), hex encoded.
+     */
+    public static String hash(Object... parts) {
+        MessageDigest md = sha256();
+        for (Object part : parts) {
+            byte[] b = String.valueOf(part).getBytes(StandardCharsets.UTF_8);
+            md.update((byte) (b.length >>> 24));
+            md.update((byte) (b.length >>> 16));
+            md.update((byte) (b.length >>> 8));
+            md.update((byte) b.length);
+            md.update(b);
+        }
+        return hex(md.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,304 @@
+package Utils;
+
+import Model.Surfaces;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * SyntheticMatchGenerator - writes yearly match CSVs in the Data/OriginalCSVs layout at a configurable scale.
+ *
+ * Usage:
+ *  - new SyntheticMatchGenerator(scale, seed).calibrate("Data/OriginalCSVs").generate(outputDir, 1968, 2025)
+ *  - or run main: SyntheticMatchGenerator <outputDir> <scale> [seed] [fromYear] [toYear]
+ *
+ * Notes:
+ *  - scale multiplies the number of tournaments per year (scale 1 ~ real ATP volume). Every block of
+ *    BASE_TOURNAMENTS_PER_YEAR events is a separate circuit with its own BASE_PLAYER_POOL players, so the
+ *    player count grows with scale while per-player activity stays realistic.
+ *  - Within a circuit, activity follows a power law: draws are filled by sampling players with weight
+ *    1 / rank^ACTIVITY_EXPONENT, and stronger (lower-ranked) players win more often through an Elo-style skill gap.
+ *  - Each tournament is a single-elimination bracket (R128 .. F) so draw structure matches the real files.
+ *  - calibrate() reads the real year files for per-year missing-stat rate and surface mix; without it
+ *    the generator falls back to DEFAULT_* values. Same seed and config -> byte-identical output.
+ */
+public class SyntheticMatchGenerator {
+
+    public static final String HEADER = "tourney_id,tourney_name,surface,draw_size,tourney_level,tourney_date,match_num,"
+            + "winner_id,winner_seed,winner_entry,winner_name,winner_hand,winner_ht,winner_ioc,winner_age,winner_rank,winner_rank_points,"
+            + "loser_id,loser_seed,loser_entry,loser_name,loser_hand,loser_ht,loser_ioc,loser_age,loser_rank,loser_rank_points,"
+            + "score,best_of,round,minutes,"
+            + "w_ace,w_df,w_svpt,w_1stIn,w_1stWon,w_2ndWon,w_SvGms,w_bpSaved,w_bpFaced,"
+            + "l_ace,l_df,l_svpt,l_1stIn,l_1stWon,l_2ndWon,l_SvGms,l_bpSaved,l_bpFaced";
+
+    private static final int BASE_TOURNAMENTS_PER_YEAR = 65;
+    private static final int BASE_PLAYER_POOL = 2500;
+    private static final double ACTIVITY_EXPONENT = 0.9;
+    private static final double[] DEFAULT_SURFACE_MIX = {0.55, 0.32, 0.10, 0.03};
+    private static final String[] IOC = {"USA", "ESP", "FRA", "ITA", "ARG", "GER", "AUS", "SRB", "GBR", "RUS"};
+
+    private final double scale;
+    private final long seed;
+
+    // per-year calibration from real data (year -> value)
+    private final Map<Integer, Double> missingStatRate = new HashMap<>();
+    private final Map<Integer, double[]> surfaceMix = new HashMap<>();
+
+    public SyntheticMatchGenerator(double scale, long seed) {
+        if (scale <= 0) throw new IllegalArgumentException("scale must be > 0");
+        this.scale = scale;
+        this.seed = seed;
+    }
+
+    /**
+     * Read missing-stat rate and surface mix for every year file (see MyCSVLoader.yearFiles) in the given directory.
+     */
+    public SyntheticMatchGenerator calibrate(String originalCsvDir) throws IOException {
+        for (Path f : MyCSVLoader.yearFiles(Path.of(originalCsvDir))) {
+            int year = Integer.parseInt(f.getFileName().toString().substring(0, 4));
+            int rows = 0, missing = 0;
+            double[] surfaces = new double[Surfaces.KNOWN];
+            try (BufferedReader br = PipelinedCsvLoader.open(f)) {
+                Map<String, Integer> ix = MyCSVLoader.headerIndex(br.readLine());
+                int svpt = ix.get("w_svpt"), surface = ix.get("surface");
+                String line;
+                while ((line = br.readLine()) != null) {
+                    String[] c = line.split(",", -1);
+                    if (c.length <= svpt) continue;
+                    rows++;
+                    if (c[svpt].isEmpty()) missing++;
+                    int s = Surfaces.bucket(c[surface]);
+                    if (s < Surfaces.KNOWN) surfaces[s]++;
+                }
+            }
+            if (rows == 0) continue;
+            missingStatRate.put(year, (double) missing / rows);
+            double total = Arrays.stream(surfaces).sum();
+            if (total > 0) {
+                for (int s = 0; s < surfaces.length; s++) surfaces[s] /= total;
+                surfaceMix.put(year, surfaces);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Write one CSV per year into outputDir. Returns the number of match rows written.
+     */
+    public long generate(Path outputDir, int fromYear, int toYear) throws IOException {
+        Files.createDirectories(outputDir);
+        SplittableRandom rng = new SplittableRandom(seed);
+
+        double[] cumulativeActivity = cumulativePowerLaw(BASE_PLAYER_POOL);
+        boolean[] inDraw = new boolean[BASE_PLAYER_POOL];
+
+        long written = 0;
+        for (int year = fromYear; year <= toYear; year++) {
+            SplittableRandom yearRng = rng.split();
+            Path file = outputDir.resolve(year + ".csv");
+            try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                w.write(HEADER);
+                w.newLine();
+                int tournaments = (int) Math.max(1, Math.round(BASE_TOURNAMENTS_PER_YEAR * scale));
+                for (int t = 0; t < tournaments; t++) {
+                    written += writeTournament(w, yearRng, year, t, tournaments, cumulativeActivity, inDraw);
+                }
+            }
+        }
+        return written;
+    }
+
+    private int writeTournament(BufferedWriter w, SplittableRandom rng, int year, int t, int tournaments,
+                                double[] cumulativeActivity, boolean[] inDraw) throws IOException {
+        // Draw structure: 4 slams per 65 events, ~15% masters, the rest 250/500 events
+        int slot = t % BASE_TOURNAMENTS_PER_YEAR;
+        boolean slam = slot == 2 || slot == 20 || slot == 27 || slot == 40;
+        int drawSize;
+        String level;
+        if (slam) {
+            drawSize = 128;
+            level = "G";
+        } else if (rng.nextDouble() < 0.15) {
+            drawSize = 64;
+            level = "M";
+        } else {
+            drawSize = 32;
+            level = rng.nextDouble() < 0.3 ? "A" : "B";
+        }
+        int bestOf = slam ? 5 : 3;
+        String surface = Surfaces.name(pick(rng, surfaceMix.getOrDefault(year, DEFAULT_SURFACE_MIX)));
+        double missingRate = missingStatRate.getOrDefault(year, year < 1991 ? 1.0 : 0.05);
+        String tourneyId = year + "-syn" + t;
+        String tourneyName = "Synthetic " + t;
+        int circuitOffset = (t / BASE_TOURNAMENTS_PER_YEAR) * BASE_PLAYER_POOL;
+        // spread events evenly over the season
+        LocalDate start = LocalDate.ofYearDay(year, 1 + (int) ((350L * t) / tournaments));
+        int tourneyDate = year * 10000 + start.getMonthValue() * 100 + start.getDayOfMonth();
+
+        // Fill the draw by power-law activity, rejecting duplicates
+        int[] draw = new int[drawSize];
+        for (int i = 0; i < drawSize; i++) {
+            int p;
+            do {
+                p = sampleCumulative(rng, cumulativeActivity);
+            } while (inDraw[p]);
+            inDraw[p] = true;
+            draw[i] = p;
+        }
+        for (int p : draw) inDraw[p] = false;
+
+        // Play the bracket round by round
+        int matchNum = 1;
+        int rows = 0;
+        int[] alive = draw;
+        while (alive.length > 1) {
+            String round = alive.length == 2 ? "F" : alive.length == 4 ? "SF" : alive.length == 8 ? "QF" : "R" + alive.length;
+            int[] next = new int[alive.length / 2];
+            for (int i = 0; i < next.length; i++) {
+                int a = alive[2 * i], b = alive[2 * i + 1];
+                boolean aWins = rng.nextDouble() < winProbability(a, b);
+                int winner = aWins ? a : b, loser = aWins ? b : a;
+                next[i] = winner;
+                writeMatch(w, rng, tourneyId, tourneyName, surface, drawSize, level, tourneyDate, matchNum++,
+                        circuitOffset, winner, loser, bestOf, round, rng.nextDouble() < missingRate, year);
+                rows++;
+            }
+            alive = next;
+        }
+        return rows;
+    }
+
+    private void writeMatch(BufferedWriter w, SplittableRandom rng, String tourneyId, String tourneyName, String surface,
+                            int drawSize, String level, int tourneyDate, int matchNum, int circuitOffset, int winner, int loser,
+                            int bestOf, String round, boolean missingStats, int year) throws IOException {
+        int sets = bestOf == 5 ? 3 + rng.nextInt(3) : 2 + rng.nextInt(2);
+        String score = score(rng, sets, bestOf);
+        int svpt = 26 * sets + rng.nextInt(10 * sets + 1);
+
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(tourneyId).append(',').append(tourneyName).append(',').append(surface).append(',')
+                .append(drawSize).append(',').append(level).append(',').append(tourneyDate).append(',').append(matchNum).append(',');
+        appendPlayer(sb, circuitOffset, winner, year);
+        appendPlayer(sb, circuitOffset, loser, year);
+        sb.append(score).append(',').append(bestOf).append(',').append(round).append(',');
+        if (missingStats) {
+            sb.append(",,,,,,,,,,,,,,,,,,"); // minutes + 18 stat columns
+        } else {
+            sb.append(svpt * 2 * 55 / 100).append(',');
+            appendServeStats(sb, rng, svpt, 0.74, 0.55, 0.35);
+            sb.append(',');
+            appendServeStats(sb, rng, svpt + rng.nextInt(11) - 5, 0.66, 0.48, 0.60);
+        }
+        w.write(sb.toString());
+        w.newLine();
+    }
+
+    // p is the circuit-local pool position; ids and names are global
+    private static void appendPlayer(StringBuilder sb, int circuitOffset, int p, int year) {
+        int rank = p + 1;
+        int id = circuitOffset + p;
+        sb.append(100000 + id).append(',')
+                .append(rank <= 32 ? String.valueOf(rank) : "").append(',')
+                .append(',') // entry
+                .append("Player ").append(id).append(',')
+                .append(p % 7 == 0 ? 'L' : 'R').append(',')
+                .append(175 + p % 25).append(',')
+                .append(IOC[p % IOC.length]).append(',')
+                .append(18 + (p * 7 + year) % 17).append(".0,")
+                .append(rank).append(',')
+                .append(Math.max(1, 10000 / rank)).append(',');
+    }
+
+    // w_ace..w_bpFaced for one side; pWon1st/pWon2nd are serve point win rates, bpFacedRate scales break points
+    private static void appendServeStats(StringBuilder sb, SplittableRandom rng, int svpt,
+                                         double pWon1st, double pWon2nd, double bpFacedRate) {
+        int firstIn = (int) (svpt * (0.58 + 0.08 * rng.nextDouble()));
+        int firstWon = (int) (firstIn * (pWon1st + 0.06 * (rng.nextDouble() - 0.5)));
+        int secondPlayed = svpt - firstIn;
+        int df = Math.min(secondPlayed, rng.nextInt(7));
+        int secondWon = (int) ((secondPlayed - df) * (pWon2nd + 0.08 * (rng.nextDouble() - 0.5)));
+        int aces = Math.min(firstWon, rng.nextInt(Math.max(1, svpt / 8)));
+        int serviceGames = Math.max(1, svpt / 6);
+        int bpFaced = (int) (serviceGames * bpFacedRate * rng.nextDouble() * 1.5);
+        int bpSaved = bpFaced == 0 ? 0 : rng.nextInt(bpFaced + 1);
+        sb.append(aces).append(',').append(df).append(',').append(svpt).append(',').append(firstIn).append(',')
+                .append(firstWon).append(',').append(secondWon).append(',').append(serviceGames).append(',')
+                .append(bpSaved).append(',').append(bpFaced);
+    }
+
+    private static String score(SplittableRandom rng, int sets, int bestOf) {
+        int toWin = bestOf / 2 + 1;
+        int lost = sets - toWin;
+        StringBuilder sb = new StringBuilder();
+        for (int s = 0; s < sets; s++) {
+            boolean winnerTakes = s >= lost; // losses first, then the winner closes it out
+            int other = rng.nextInt(6);
+            String set = other == 5 && rng.nextBoolean() ? "7-6" : other == 5 ? "7-5" : "6-" + other;
+            if (!winnerTakes) set = new StringBuilder(set).reverse().toString();
+            if (s > 0) sb.append(' ');
+            sb.append(set);
+        }
+        return sb.toString();
+    }
+
+    // Elo-style win probability from pool position: player 0 is strongest
+    private static double winProbability(int a, int b) {
+        double skillA = -250.0 * Math.log(a + 1);
+        double skillB = -250.0 * Math.log(b + 1);
+        return 1.0 / (1.0 + Math.pow(10.0, (skillB - skillA) / 400.0));
+    }
+
+    private static double[] cumulativePowerLaw(int n) {
+        double[] cumulative = new double[n];
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / Math.pow(i + 1, ACTIVITY_EXPONENT);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) cumulative[i] /= sum;
+        return cumulative;
+    }
+
+    private static int sampleCumulative(SplittableRandom rng, double[] cumulative) {
+        int i = Arrays.binarySearch(cumulative, rng.nextDouble());
+        return Math.min(cumulative.length - 1, i >= 0 ? i : -i - 1);
+    }
+
+    private static int pick(SplittableRandom rng, double[] weights) {
+        double u = rng.nextDouble(), acc = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            acc += weights[i];
+            if (u < acc) return i;
+        }
+        return 0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticMatchGenerator <outputDir> <scale> [seed] [fromYear] [toYear]");
+            return;
+        }
+        Path out = Path.of(args[0]);
+        double scale = Double.parseDouble(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        int from = args.length > 3 ? Integer.parseInt(args[3]) : 1968;
+        int to = args.length > 4 ? Integer.parseInt(args[4]) : 2025;
+
+        SyntheticMatchGenerator gen = new SyntheticMatchGenerator(scale, seed);
+        if (new File("Data/OriginalCSVs").isDirectory()) gen.calibrate("Data/OriginalCSVs");
+        long rows = gen.generate(out, from, to);
+        System.out.println("Wrote " + rows + " synthetic matches to " + out);
+    }
+}
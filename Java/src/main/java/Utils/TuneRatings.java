@@ -0,0 +1,59 @@
+package Utils;
+
+import Model.MatchStore;
+import Model.OffHeapPlayerState;
+import Model.RatingTuner;
+import Objects.ModelData;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TuneRatings - loads the year files and runs a RatingTuner grid search over Elo parameters.
+ *
+ * Usage:
+ *  TuneRatings [dataDir] [testFromYear] [testToYear]     defaults: Data/OriginalCSVs 2020 2024
+ *
+ * Notes:
+ *  - Year files are loaded by PipelinedCsvLoader and cleaned by PrepareXGBoostData.validate, the same way the
+ *    feature pipeline loads them.
+ *  - Prints the ten best candidates by log-loss, then the current setup (OffHeapPlayerState.ELO_K, overall
+ *    Elo only, no decay) as a baseline.
+ */
+public class TuneRatings {
+
+    private static final double[] K_FACTORS = {16, 20, 24, 28, 32, 40, 48, 56, 64, 80};
+    private static final double[] SURFACE_WEIGHTS = {0.0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 1.0};
+    private static final double[] HALF_LIVES = {0, 180, 365, 730, 1460};
+
+    public static void main(String[] args) {
+        String dataDir = args.length > 0 ? args[0] : "Data/OriginalCSVs";
+        int testFrom = args.length > 1 ? Integer.parseInt(args[1]) : 2020;
+        int testTo = args.length > 2 ? Integer.parseInt(args[2]) : 2024;
+
+        List<Path> files = MyCSVLoader.yearFiles(Path.of(dataDir));
+        if (files.isEmpty()) {
+            System.err.println("No YYYY.csv or YYYY.csv.gz files in " + dataDir);
+            return;
+        }
+        List<ModelData> matches = new ArrayList<>();
+        try {
+            for (List<ModelData> year : PipelinedCsvLoader.loadAll(files)) matches.addAll(year);
+        } catch (IOException e) {
+            System.err.println("Failed to load " + dataDir + ": " + e.getMessage());
+            return;
+        }
+        matches = PrepareXGBoostData.validate(matches);
+
+        RatingTuner tuner = new RatingTuner(MatchStore.from(matches), testFrom, testTo);
+        long start = System.nanoTime();
+        List<RatingTuner.Result> results = tuner.grid(K_FACTORS, SURFACE_WEIGHTS, HALF_LIVES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Evaluated %d candidates over %d matches in %.1fs%n", results.size(), matches.size(), seconds);
+        results.stream().limit(10).forEach(System.out::println);
+        // the ratings OffHeapPlayerState keeps for simulations: overall Elo only, K = ELO_K, no decay
+        System.out.println("current: " + tuner.evaluate(new RatingTuner.Params(OffHeapPlayerState.ELO_K, 0.0, 0)));
+    }
+}
@@ -0,0 +1,172 @@
+package Model;
+
+import Objects.MatchFeatures;
+import Objects.ModelData;
+import Utils.MyCSVLoader;
+import Utils.PrepareXGBoostData;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleBiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * AllocationBudgetTest - allocation regression test for the FeatureEngineer hot path on real year files.
+ *
+ * Usage:
+ *  - mvn test (runs from the project root, so the data comes from Data/OriginalCSVs)
+ *  - prints bytes allocated per match / per call and fails if any budget is exceeded
+ *
+ * Budgets:
+ *  - buildAll: bytes per match, covering the MatchFeatureRow (~330 B), the result list slot, two history
+ *    nodes, the h2h counter of a first meeting and the map entries of first-time players. 512 is the
+ *    measured 500 B/match on 2015-2024 (JDK 21, C2) rounded up to a power of two, so the headroom is only
+ *    ~2%: one more 16 B object per match fails it. That is intended; raise the budget on purpose, with the
+ *    new measurement, when a change really needs more.
+ *  - every feature getter: 0 bytes per call on the heap backend and the off-heap backend
+ *
+ * Notes:
+ *  - Year files are picked by MyCSVLoader.yearFiles, so gzipped years are measured like plain ones. The test
+ *    is skipped when no year in [FROM_YEAR, TO_YEAR] is present.
+ *  - Allocation is read from com.sun.management.ThreadMXBean for the current thread, so only this thread
+ *    must do the work being measured.
+ *  - Each measurement runs a few warm-up rounds first; the budgets hold for JIT-compiled code, where escape
+ *    analysis removes the iterators used to walk the history lists.
+ *  - buildAll runs first, before the off-heap backend has been through FeatureEngineer: once both backends
+ *    have, C2 sometimes compiles buildAll without the escape analysis above and it measures ~555 B/match.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class AllocationBudgetTest {
+
+    private static final Path DATA_DIR = Path.of("Data/OriginalCSVs");
+    private static final int FROM_YEAR = 2015;
+    private static final int TO_YEAR = 2024;
+
+    private static final long BUILD_ALL_BYTES_PER_MATCH = 512;
+    private static final double GETTER_BYTES_PER_CALL = 0.0;
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROLLING_WINDOW = 5;
+
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static List<ModelData> matches;
+
+    @BeforeAll
+    static void load() {
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "thread allocation measurement not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        List<ModelData> all = new ArrayList<>();
+        for (Path f : MyCSVLoader.yearFiles(DATA_DIR, FROM_YEAR, TO_YEAR)) {
+            all.addAll(MyCSVLoader.loadModelData(f.toString()));
+        }
+        assumeTrue(!all.isEmpty(), "no year files " + FROM_YEAR + "-" + TO_YEAR + " in " + DATA_DIR);
+        matches = PrepareXGBoostData.validate(all);
+        System.out.printf("%d matches from %s %d-%d%n", matches.size(), DATA_DIR, FROM_YEAR, TO_YEAR);
+    }
+
+    // -------------------------
+    // Tests
+    // -------------------------
+
+    @Test
+    @Order(1)
+    void buildAllStaysWithinBudget() {
+        long bytes = 0;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            FeatureEngineer fe = new FeatureEngineer(matches);
+            long before = allocatedBytes();
+            List<MatchFeatures> rows = fe.buildAll();
+            bytes = allocatedBytes() - before;
+            assertEquals(matches.size(), rows.size(), "buildAll row count");
+        }
+        check("buildAll", "match", (double) bytes / matches.size(), BUILD_ALL_BYTES_PER_MATCH);
+    }
+
+    @Test
+    @Order(2)
+    void heapGettersDoNotAllocate() {
+        checkGetters("heap", new FeatureEngineer(matches));
+    }
+
+    @Test
+    @Order(3)
+    void offHeapGettersDoNotAllocate() {
+        try (OffHeapPlayerState offHeap = OffHeapPlayerState.inMemory(8192)) {
+            checkGetters("off-heap", new FeatureEngineer(matches, offHeap));
+        }
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+
+    private static void checkGetters(String backend, FeatureEngineer fe) {
+        fe.buildAll(); // fill player state with the whole period
+
+        List<String> failures = new ArrayList<>();
+        checkGetter(failures, backend, "getH2hWins", (p, o) -> fe.getH2hWins(p, o));
+        checkGetter(failures, backend, "getH2hWinRate", fe::getH2hWinRate);
+        checkGetter(failures, backend, "getRecentWins", (p, o) -> fe.getRecentWins(p, ROLLING_WINDOW));
+        checkGetter(failures, backend, "getRecentTotal", (p, o) -> fe.getRecentTotal(p, ROLLING_WINDOW));
+        checkGetter(failures, backend, "getRollingWinPct", (p, o) -> fe.getRollingWinPct(p, ROLLING_WINDOW));
+        checkGetter(failures, backend, "getRollingDoubleStatAvg", (p, o) -> fe.getRollingDoubleStatAvg(p, "aces", ROLLING_WINDOW));
+        checkGetter(failures, backend, "getRollingBPConversion", (p, o) -> fe.getRollingBPConversion(p, ROLLING_WINDOW));
+        checkGetter(failures, backend, "getSurfaceWinPct", fe::getSurfaceWinPct);
+        checkGetter(failures, backend, "getSurfaceAvgDoubleStat", (p, s) -> fe.getSurfaceAvgDoubleStat(p, s, "aces"));
+        assertTrue(failures.isEmpty(), "getters over budget: " + failures);
+    }
+
+    /**
+     * Calls the getter for winner and loser of every match. The second argument is the opponent for h2h
+     * getters and the match surface for surface getters; the others ignore it.
+     */
+    private static void checkGetter(List<String> failures, String backend, String name,
+                                    ToDoubleBiFunction<String, String> getter) {
+        boolean surfaceArg = name.startsWith("getSurface");
+        long bytes = 0;
+        double sink = 0.0;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            long before = allocatedBytes();
+            for (int i = 0; i < matches.size(); i++) { // indexed: an iterator here would be counted
+                ModelData m = matches.get(i);
+                String w = m.getWinner_name(), l = m.getLoser_name();
+                sink += getter.applyAsDouble(w, surfaceArg ? m.getSurface() : l);
+                sink += getter.applyAsDouble(l, surfaceArg ? m.getSurface() : w);
+            }
+            bytes = allocatedBytes() - before;
+        }
+        if (Double.isNaN(sink)) System.out.println("(NaN in " + name + ")"); // keeps sink alive
+        double perCall = (double) bytes / (2.0 * matches.size());
+        if (!report(backend + " " + name, "call", perCall, GETTER_BYTES_PER_CALL)) {
+            failures.add(String.format("%s %.2f B/call", name, perCall));
+        }
+    }
+
+    private static void check(String what, String unit, double bytesPerUnit, double budget) {
+        assertTrue(report(what, unit, bytesPerUnit, budget),
+                String.format("%s allocates %.2f B/%s, budget %.0f", what, bytesPerUnit, unit, budget));
+    }
+
+    private static boolean report(String what, String unit, double bytesPerUnit, double budget) {
+        boolean ok = bytesPerUnit <= budget;
+        System.out.printf("%-4s %-34s %10.2f B/%-5s (budget %.0f)%n", ok ? "OK" : "FAIL", what, bytesPerUnit, unit, budget);
+        return ok;
+    }
+
+    private static long allocatedBytes() {
+        return threads.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,58 @@
+package Model;
+
+import Objects.MatchFeatures;
+import Objects.ModelData;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+
+/**
+ * FeatureEngineerParallelTest - buildAllParallel returns exactly the rows of buildAll, for every orientation and
+ * both player-state backends.
+ */
+class FeatureEngineerParallelTest {
+
+    private static final int FROM_YEAR = 2020;
+    private static final int TO_YEAR = 2024;
+    private static final long SEED = 42L;
+    private static final int OFF_HEAP_CAPACITY = 8192;
+
+    private static List<ModelData> matches;
+
+    @BeforeAll
+    static void load() {
+        matches = FeatureRows.load(FROM_YEAR, TO_YEAR);
+    }
+
+    @ParameterizedTest
+    @EnumSource(FeatureEngineer.Orientation.class)
+    void heapParallelMatchesSerial(FeatureEngineer.Orientation orientation) {
+        List<MatchFeatures> serial = new FeatureEngineer(matches).buildAll(orientation, SEED);
+        List<MatchFeatures> parallel = new FeatureEngineer(matches).buildAllParallel(orientation, SEED);
+        FeatureRows.assertSameRows(serial, parallel, "heap " + orientation);
+    }
+
+    @ParameterizedTest
+    @EnumSource(FeatureEngineer.Orientation.class)
+    void offHeapParallelMatchesSerial(FeatureEngineer.Orientation orientation) {
+        try (OffHeapPlayerState serialState = OffHeapPlayerState.inMemory(OFF_HEAP_CAPACITY);
+             OffHeapPlayerState parallelState = OffHeapPlayerState.inMemory(OFF_HEAP_CAPACITY)) {
+            List<MatchFeatures> serial = new FeatureEngineer(matches, serialState).buildAll(orientation, SEED);
+            List<MatchFeatures> parallel = new FeatureEngineer(matches, parallelState).buildAllParallel(orientation, SEED);
+            FeatureRows.assertSameRows(serial, parallel, "off-heap " + orientation);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(FeatureEngineer.Orientation.class)
+    void offHeapMatchesHeap(FeatureEngineer.Orientation orientation) {
+        try (OffHeapPlayerState state = OffHeapPlayerState.inMemory(OFF_HEAP_CAPACITY)) {
+            List<MatchFeatures> heap = new FeatureEngineer(matches).buildAll(orientation, SEED);
+            List<MatchFeatures> offHeap = new FeatureEngineer(matches, state).buildAllParallel(orientation, SEED);
+            FeatureRows.assertSameRows(heap, offHeap, "heap vs off-heap " + orientation);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package Model;
+
+import Objects.MatchFeatures;
+import Objects.ModelData;
+import Utils.MyCSVLoader;
+import Utils.PrepareXGBoostData;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * FeatureRows - shared fixtures for the FeatureEngineer tests: real year files and field-by-field row comparison.
+ *
+ * Notes:
+ *  - Rows are compared through every getter of MatchFeatures, so a new feature is covered without touching
+ *    the tests. Doubles compare exactly (NaN equals NaN) unless a tolerance is given.
+ */
+final class FeatureRows {
+
+    static final Path DATA_DIR = Path.of("Data/OriginalCSVs");
+
+    private static final List<Method> GETTERS = getters();
+
+    private FeatureRows() {}
+
+    /**
+     * Validated matches of the year files fromYear..toYear; skips the test when there are none.
+     */
+    static List<ModelData> load(int fromYear, int toYear) {
+        List<ModelData> all = new ArrayList<>();
+        for (Path f : MyCSVLoader.yearFiles(DATA_DIR, fromYear, toYear)) {
+            all.addAll(MyCSVLoader.loadModelData(f.toString()));
+        }
+        assumeTrue(!all.isEmpty(), "no year files " + fromYear + "-" + toYear + " in " + DATA_DIR);
+        return PrepareXGBoostData.validate(all);
+    }
+
+    static void assertSameRows(List<MatchFeatures> expected, List<MatchFeatures> actual, String context) {
+        assertEquals(expected.size(), actual.size(), context + ": row count");
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameRow(expected.get(i), actual.get(i), 0.0, context + " row " + i);
+        }
+    }
+
+    /**
+     * Every getter of actual equals that of expected; doubles may differ by up to tolerance.
+     */
+    static void assertSameRow(MatchFeatures expected, MatchFeatures actual, double tolerance, String context) {
+        String difference = difference(expected, actual, tolerance);
+        if (difference != null) fail(context + ": " + difference);
+    }
+
+    /**
+     * The first getter whose values differ (as in assertSameRow), or null if the rows are the same.
+     */
+    static String difference(MatchFeatures expected, MatchFeatures actual, double tolerance) {
+        for (Method getter : GETTERS) {
+            Object e = value(getter, expected), a = value(getter, actual);
+            boolean same = Objects.equals(e, a)
+                    || (e instanceof Double && a instanceof Double && Math.abs((Double) e - (Double) a) <= tolerance);
+            if (!same) return getter.getName() + " expected " + e + " but was " + a;
+        }
+        return null;
+    }
+
+    private static Object value(Method getter, MatchFeatures mf) {
+        try {
+            return getter.invoke(mf);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("cannot read " + getter.getName(), e);
+        }
+    }
+
+    private static List<Method> getters() {
+        List<Method> getters = new ArrayList<>();
+        for (Method m : MatchFeatures.class.getMethods()) {
+            if (!Modifier.isStatic(m.getModifiers()) && m.getParameterCount() == 0 && m.getName().startsWith("get")) {
+                getters.add(m);
+            }
+        }
+        getters.sort(Comparator.comparing(Method::getName));
+        return getters;
+    }
+}
@@ -0,0 +1,147 @@
+package Model;
+
+import Objects.MatchFeatures;
+import Objects.ModelData;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PairFeatureCacheTest - snapshots through a PairFeatureCache equal uncached ones, a (B, A) query is answered
+ * from the cached (A, B) row, and an entry stops hitting once either of its players plays again.
+ *
+ * Notes:
+ *  - A mirrored cached row has markovWinProbP1 = 1 - p, which may differ from a direct computation in the
+ *    last bits (see PairFeatureCache), so comparisons against an uncached engineer allow MIRROR_TOLERANCE.
+ */
+class PairFeatureCacheTest {
+
+    private static final int FROM_YEAR = 2019;
+    private static final int TO_YEAR = 2024;
+    private static final int QUERY_PLAYERS = 48;
+    private static final int MATCHES_PER_ROUND = 4; // ingested between rounds of queries
+    private static final int QUERIES_PER_ROUND = 8;
+    private static final double MIRROR_TOLERANCE = 1e-12;
+    private static final String SURFACE = "Hard";
+    private static final String ROUND = "R32";
+
+    private static List<ModelData> matches;
+    private static List<String> players;
+
+    @BeforeAll
+    static void load() {
+        matches = FeatureRows.load(FROM_YEAR, TO_YEAR);
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = matches.size() - 1; i >= 0 && names.size() < QUERY_PLAYERS; i--) { // recently active players
+            names.add(matches.get(i).getWinner_name());
+            names.add(matches.get(i).getLoser_name());
+        }
+        players = new ArrayList<>(names);
+    }
+
+    // -------------------------
+    // Tests
+    // -------------------------
+
+    @Test
+    void cachedSnapshotsMatchUncached() {
+        FeatureEngineer cached = new FeatureEngineer(matches);
+        FeatureEngineer uncached = new FeatureEngineer(matches);
+        PairFeatureCache cache = new PairFeatureCache(1024);
+        cached.setPairCache(cache);
+
+        SplittableRandom rng = new SplittableRandom(7);
+        for (int i = 0; i < matches.size(); i++) {
+            cached.ingest(matches.get(i));
+            uncached.ingest(matches.get(i));
+            if (i % MATCHES_PER_ROUND != 0) continue;
+            for (int q = 0; q < QUERIES_PER_ROUND; q++) {
+                int a = rng.nextInt(players.size()), b = rng.nextInt(players.size() - 1);
+                if (b >= a) b++;
+                int bestOf = rng.nextBoolean() ? 3 : 5;
+                FeatureRows.assertSameRow(snapshot(uncached, a, b, bestOf), snapshot(cached, a, b, bestOf),
+                        MIRROR_TOLERANCE, "after match " + i + ", " + players.get(a) + " vs " + players.get(b));
+            }
+        }
+        System.out.println(cache);
+        assertTrue(cache.hits() > 0, "no hits: " + cache);
+        assertTrue(cache.invalidations() + cache.expirations() > 0, "no entry went stale: " + cache);
+    }
+
+    @Test
+    void mirroredQueryIsServedFromCachedRow() {
+        FeatureEngineer fe = new FeatureEngineer(matches);
+        PairFeatureCache cache = new PairFeatureCache(1024);
+        fe.setPairCache(cache);
+        for (ModelData m : matches) fe.ingest(m);
+
+        MatchFeatures ab = snapshot(fe, 0, 1, 5);
+        long hits = cache.hits(), misses = cache.misses();
+        MatchFeatures ba = snapshot(fe, 1, 0, 5);
+
+        assertEquals(hits + 1, cache.hits(), "(B, A) should hit the (A, B) entry");
+        assertEquals(misses, cache.misses());
+        assertEquals(1, cache.size());
+        FeatureRows.assertSameRow(ab.mirrored(), ba, 0.0, "cached mirror");
+
+        FeatureEngineer uncached = new FeatureEngineer(matches);
+        for (ModelData m : matches) uncached.ingest(m);
+        FeatureRows.assertSameRow(snapshot(uncached, 1, 0, 5), ba, MIRROR_TOLERANCE, "direct (B, A)");
+    }
+
+    @Test
+    void entryGoesStaleOnlyWhenItsPlayersPlay() {
+        int k = matches.size() / 2;
+        while (!players.contains(matches.get(k).getWinner_name())) k++;
+        ModelData next = matches.get(k);
+        int player = players.indexOf(next.getWinner_name());
+        List<Integer> others = new ArrayList<>(); // players not in the next match
+        for (int i = 0; i < players.size() && others.size() < 3; i++) {
+            if (!players.get(i).equals(next.getWinner_name()) && !players.get(i).equals(next.getLoser_name())) others.add(i);
+        }
+
+        FeatureEngineer fe = new FeatureEngineer(matches);
+        PairFeatureCache cache = new PairFeatureCache(1024);
+        fe.setPairCache(cache);
+        for (int i = 0; i < k; i++) fe.ingest(matches.get(i));
+
+        snapshot(fe, player, others.get(0), 3);
+        snapshot(fe, others.get(1), others.get(2), 3);
+        fe.ingest(next);
+
+        long invalidations = cache.invalidations(), hits = cache.hits();
+        MatchFeatures stale = snapshot(fe, player, others.get(0), 3);
+        assertEquals(invalidations + 1, cache.invalidations(), "entry of a player who just played should be dropped");
+        snapshot(fe, others.get(1), others.get(2), 3);
+        assertEquals(hits + 1, cache.hits(), "entry of players who did not play should still hit");
+
+        FeatureEngineer uncached = new FeatureEngineer(matches);
+        for (int i = 0; i <= k; i++) uncached.ingest(matches.get(i));
+        FeatureRows.assertSameRow(snapshot(uncached, player, others.get(0), 3), stale, 0.0, "recomputed entry");
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new PairFeatureCache(0));
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+
+    // ranks are fixed per player so repeated pairs share a cache key
+    private static MatchFeatures snapshot(FeatureEngineer fe, int player1, int player2, int bestOf) {
+        return fe.snapshotFeatures(players.get(player1), players.get(player2), SURFACE, ROUND,
+                player1 + 1, player2 + 1, bestOf);
+    }
+}
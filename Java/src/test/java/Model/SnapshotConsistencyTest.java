@@ -0,0 +1,204 @@
+package Model;
+
+import Objects.MatchFeatures;
+import Objects.ModelData;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * SnapshotConsistencyTest - snapshotFeatures taken by reader threads while another thread ingests equal the
+ * features a serial run computes at some state version, with and without a PairFeatureCache.
+ *
+ * Notes:
+ *  - A reader notes stateVersion() before and after each call. The snapshot must equal the serial features
+ *    after exactly v matches for some v in that range; a torn read (part of a match applied) matches none.
+ *  - Cached rows asked for in the other player order are mirrored views, whose markovWinProbP1 is 1 - p and
+ *    may differ in the last bits (see PairFeatureCache), hence the tolerance with the cache on.
+ */
+class SnapshotConsistencyTest {
+
+    private static final int FROM_YEAR = 2015;
+    private static final int TO_YEAR = 2024;
+    private static final int READERS = 3;
+    private static final int MAX_SNAPSHOTS_PER_READER = 50_000;
+    private static final int QUERY_PLAYERS = 64; // most active players, so pairs repeat and the cache hits
+    private static final String[] SURFACES = {"Hard", "Clay", "Grass"};
+    private static final double CACHED_TOLERANCE = 1e-12;
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private static List<ModelData> matches;
+    private static List<String> players;
+
+    @BeforeAll
+    static void load() {
+        matches = FeatureRows.load(FROM_YEAR, TO_YEAR);
+        players = mostActive(matches, QUERY_PLAYERS);
+    }
+
+    // -------------------------
+    // Tests
+    // -------------------------
+
+    @Test
+    void snapshotsDuringIngestMatchSerialState() throws Exception {
+        FeatureEngineer fe = new FeatureEngineer(matches);
+        replay(assertTimeoutPreemptively(TIMEOUT, () -> ingestWhileReading(fe)), 0.0);
+    }
+
+    @Test
+    void cachedSnapshotsDuringIngestMatchSerialState() throws Exception {
+        FeatureEngineer fe = new FeatureEngineer(matches);
+        PairFeatureCache cache = new PairFeatureCache(4096);
+        fe.setPairCache(cache);
+        replay(assertTimeoutPreemptively(TIMEOUT, () -> ingestWhileReading(fe)), CACHED_TOLERANCE);
+        assertTrue(cache.hits() > 0, "no cache hits: " + cache);
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+
+    /**
+     * Ingests every match on this thread while READERS threads take snapshots; returns the snapshots.
+     */
+    private static List<Snapshot> ingestWhileReading(FeatureEngineer fe) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(READERS);
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(READERS);
+        try {
+            List<Future<List<Snapshot>>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                SplittableRandom rng = new SplittableRandom(r);
+                readers.add(pool.submit(() -> {
+                    List<Snapshot> kept = new ArrayList<>();
+                    started.countDown();
+                    while (!done.get() && kept.size() < MAX_SNAPSHOTS_PER_READER) {
+                        Snapshot s = Snapshot.random(rng);
+                        long before = fe.stateVersion();
+                        MatchFeatures mf = s.take(fe);
+                        kept.add(s.taken(before, fe.stateVersion(), mf));
+                    }
+                    return kept;
+                }));
+            }
+            started.await();
+            for (ModelData m : matches) fe.ingest(m);
+            done.set(true);
+
+            List<Snapshot> all = new ArrayList<>();
+            for (Future<List<Snapshot>> f : readers) all.addAll(f.get());
+            return all;
+        } finally {
+            done.set(true);
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Advances a fresh engineer one match at a time and checks each snapshot against every version in its range.
+     */
+    private static void replay(List<Snapshot> snapshots, double tolerance) {
+        snapshots.sort(Comparator.comparingLong(s -> s.from));
+        List<Snapshot> open = new ArrayList<>();
+        int next = 0, duringIngest = 0, overlappingWrites = 0;
+
+        FeatureEngineer serial = new FeatureEngineer(matches);
+        for (int version = 0; version <= matches.size(); version++) {
+            if (version > 0) serial.ingest(matches.get(version - 1));
+            while (next < snapshots.size() && snapshots.get(next).from == version) {
+                Snapshot s = snapshots.get(next++);
+                if (s.from > 0 && s.from < matches.size()) duringIngest++;
+                if (s.to > s.from) overlappingWrites++;
+                open.add(s);
+            }
+            for (Iterator<Snapshot> it = open.iterator(); it.hasNext(); ) {
+                Snapshot s = it.next();
+                String difference = FeatureRows.difference(s.take(serial), s.features, tolerance);
+                if (difference == null) {
+                    it.remove();
+                } else if (s.to == version) {
+                    fail(s + " matches no state version in " + s.from + ".." + s.to + "; at " + s.to + ": " + difference);
+                }
+            }
+        }
+        assertTrue(open.isEmpty(), open.size() + " snapshots were never compared");
+        assertTrue(duringIngest > 0, "no snapshot was taken while matches were ingested");
+        System.out.printf("%d snapshots compared, %d during ingest, %d overlapping a write%n",
+                snapshots.size(), duringIngest, overlappingWrites);
+    }
+
+    private static List<String> mostActive(List<ModelData> matches, int n) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (ModelData m : matches) {
+            counts.merge(m.getWinner_name(), 1, Integer::sum);
+            counts.merge(m.getLoser_name(), 1, Integer::sum);
+        }
+        List<String> names = new ArrayList<>(counts.keySet());
+        names.sort(Comparator.comparing((String p) -> -counts.get(p)).thenComparing(p -> p));
+        return names.subList(0, Math.min(n, names.size()));
+    }
+
+    /**
+     * One snapshotFeatures query and, once taken, the state versions around the call and its result.
+     */
+    private static final class Snapshot {
+        final String player1;
+        final String player2;
+        final String surface;
+        final int bestOf;
+        long from; // stateVersion before and after the call
+        long to;
+        MatchFeatures features;
+
+        private Snapshot(String player1, String player2, String surface, int bestOf) {
+            this.player1 = player1;
+            this.player2 = player2;
+            this.surface = surface;
+            this.bestOf = bestOf;
+        }
+
+        static Snapshot random(SplittableRandom rng) {
+            int a = rng.nextInt(players.size()), b = rng.nextInt(players.size() - 1);
+            if (b >= a) b++;
+            return new Snapshot(players.get(a), players.get(b), SURFACES[rng.nextInt(SURFACES.length)],
+                    rng.nextBoolean() ? 3 : 5);
+        }
+
+        // ranks are fixed per player so repeated pairs share a cache key
+        MatchFeatures take(FeatureEngineer fe) {
+            return fe.snapshotFeatures(player1, player2, surface, "R32",
+                    players.indexOf(player1) + 1, players.indexOf(player2) + 1, bestOf);
+        }
+
+        Snapshot taken(long from, long to, MatchFeatures features) {
+            this.from = from;
+            this.to = to;
+            this.features = features;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "snapshot(" + player1 + ", " + player2 + ", " + surface + ", best of " + bestOf + ")";
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package Model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TournamentSimulatorTest - per-chunk random streams are independent and results depend only on the seed.
+ */
+class TournamentSimulatorTest {
+
+    private static final int CHUNKS = 64;
+    private static final int DRAWS = 4096;
+
+    @Test
+    void chunkStreamsDoNotOverlap() {
+        // a chunk replaying another one shifted by a few draws would repeat values across chunks
+        for (long seed : new long[] {0L, 42L, -1L}) {
+            Set<Long> seen = new HashSet<>();
+            for (int chunk = 0; chunk < CHUNKS; chunk++) {
+                SplittableRandom rng = TournamentSimulator.chunkRandom(seed, chunk);
+                for (int i = 0; i < DRAWS; i++) {
+                    long v = rng.nextLong();
+                    assertTrue(seen.add(v), "seed " + seed + ": chunk " + chunk + " draw " + i + " repeats an earlier value");
+                }
+            }
+        }
+    }
+
+    @Test
+    void sameSeedSameResult() {
+        TournamentSimulator sim = new TournamentSimulator(draw(32), 3, "Hard", (a, b, s, bo) -> 0.5 + (a.compareTo(b) < 0 ? 0.1 : -0.1));
+        TournamentSimulator.Result first = sim.simulate(200_000, 7L);
+        TournamentSimulator.Result second = sim.simulate(200_000, 7L);
+        for (int slot = 0; slot < 32; slot++) {
+            assertEquals(first.titleProbability(slot), second.titleProbability(slot));
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveSimulations() {
+        TournamentSimulator sim = new TournamentSimulator(draw(4), 3, "Hard", (a, b, s, bo) -> 0.5);
+        assertThrows(IllegalArgumentException.class, () -> sim.simulate(0, 1L));
+    }
+
+    private static List<String> draw(int n) {
+        List<String> players = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) players.add(String.format("P%02d", i));
+        return players;
+    }
+}
@@ -0,0 +1,100 @@
+package Utils;
+
+import Objects.ModelData;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * PipelinedCsvLoaderTest - the threaded loader returns what the inline loader does, and fails (rather than
+ * hangs) on a corrupt gzip year file.
+ */
+class PipelinedCsvLoaderTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(20);
+    private static final String HEADER = "tourney_id,surface,tourney_date,winner_name,loser_name";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void matchesInlineLoad() throws IOException {
+        Path plain = writeYear("2020.csv", 5000);
+        Path gz = dir.resolve("2021.csv.gz");
+        Files.write(gz, gzip(csv(5000)));
+        List<Path> files = Arrays.asList(plain, gz);
+
+        List<List<ModelData>> piped = assertTimeoutPreemptively(TIMEOUT, () -> PipelinedCsvLoader.loadAll(files, 2, 2));
+        List<List<ModelData>> inline = PipelinedCsvLoader.loadInline(files);
+        assertEquals(inline.size(), piped.size());
+        for (int f = 0; f < inline.size(); f++) {
+            assertEquals(inline.get(f).size(), piped.get(f).size());
+            for (int i = 0; i < inline.get(f).size(); i++) {
+                assertEquals(inline.get(f).get(i).getWinner_name(), piped.get(f).get(i).getWinner_name());
+                assertEquals(inline.get(f).get(i).getTourney_date(), piped.get(f).get(i).getTourney_date());
+            }
+        }
+    }
+
+    @Test
+    void corruptGzipHeaderFailsWithoutHanging() throws IOException {
+        Path plain = writeYear("2020.csv", 20000);
+        Path bad = dir.resolve("1990.csv.gz");
+        Files.writeString(bad, "not a gzip file");
+
+        assertTimeoutPreemptively(TIMEOUT,
+                () -> assertThrows(IOException.class, () -> PipelinedCsvLoader.loadAll(List.of(plain, bad), 2, 2)));
+    }
+
+    @Test
+    void truncatedGzipFailsWithoutHanging() throws IOException {
+        Path plain = writeYear("2020.csv", 20000);
+        byte[] full = gzip(csv(20000));
+        Path bad = dir.resolve("1990.csv.gz");
+        Files.write(bad, Arrays.copyOf(full, full.length / 2)); // valid header, body cut off mid-stream
+
+        assertTimeoutPreemptively(TIMEOUT,
+                () -> assertThrows(IOException.class, () -> PipelinedCsvLoader.loadAll(List.of(bad, plain), 2, 2)));
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+
+    private Path writeYear(String name, int rows) throws IOException {
+        Path file = dir.resolve(name);
+        Files.writeString(file, csv(rows));
+        return file;
+    }
+
+    private static String csv(int rows) {
+        StringBuilder sb = new StringBuilder(HEADER).append('\n');
+        for (int i = 0; i < rows; i++) {
+            sb.append("T").append(i / 32).append(",Hard,2020").append(String.format("%02d", 1 + i % 12)).append("01,")
+                    .append("Player ").append(i).append(",Player ").append(i + 1).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}